@@ -0,0 +1,35 @@
+package com.bokbok.meow.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Only compiled with -P embedded-broker. Starts an in-process Artemis
+// with a STOMP acceptor for the broker relay to connect to.
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.embedded", havingValue = "true")
+@Slf4j
+public class EmbeddedBrokerConfig {
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int port;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedActiveMQ() throws Exception {
+        // /queue/* → anycast, /topic/* → multicast, as the relay expects
+        ConfigurationImpl config = new ConfigurationImpl();
+        config.setPersistenceEnabled(false);
+        config.setSecurityEnabled(false);
+        config.addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + port +
+                "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(config);
+        log.info("Embedded Artemis STOMP broker on port {}", port);
+        return broker;
+    }
+}
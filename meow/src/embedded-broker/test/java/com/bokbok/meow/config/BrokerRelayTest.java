@@ -0,0 +1,151 @@
+package com.bokbok.meow.config;
+
+import com.bokbok.meow.security.JwtUtil;
+import com.bokbok.meow.websocket.DeflateHandshakeHandler;
+import com.bokbok.meow.websocket.TransportMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.tomcat.servlet.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.servlet.context.AnnotationConfigServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Only compiled with -P embedded-broker:
+//   mvn -P embedded-broker test -Dtest=BrokerRelayTest
+// The real WebSocketConfig in relay mode against the in-process Artemis:
+// a STOMP client subscribes to its user queue and a message sent through
+// the relay comes back over the socket.
+class BrokerRelayTest {
+
+    private AnnotationConfigServletWebServerApplicationContext server;
+    private StompSession session;
+
+    @Configuration
+    @Import({EmbeddedBrokerConfig.class, WebSocketConfig.class, VirtualThreads.class,
+            DeflateHandshakeHandler.class, TransportMetrics.class})
+    static class ServerConfig {
+
+        @Bean
+        TomcatServletWebServerFactory webServerFactory() {
+            TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+            factory.addContextCustomizers(context ->
+                    context.addServletContainerInitializer(new WsSci(), null));
+            return factory;
+        }
+
+        @Bean
+        DispatcherServlet dispatcherServlet() {
+            return new DispatcherServlet();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        JwtUtil jwtUtil() {
+            JwtUtil jwtUtil = mock(JwtUtil.class);
+            when(jwtUtil.validateAndGetUserId("alice-token")).thenReturn("alice");
+            return jwtUtil;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        server = new AnnotationConfigServletWebServerApplicationContext();
+        server.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "chat.broker.mode", "relay",
+                "chat.broker.embedded", "true",
+                "chat.broker.relay.port", freePort(),
+                // Bound onto the JwtUtil mock's fields
+                "jwt.secret", "unused",
+                "jwt.access-token-expiry", 0)));
+        server.register(ServerConfig.class);
+        server.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (session != null) session.disconnect();
+        server.close();
+    }
+
+    @Test
+    void userMessagesRoundTripThroughTheBroker() throws Exception {
+        StompBrokerRelayMessageHandler relay = server.getBean(StompBrokerRelayMessageHandler.class);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(relay.isBrokerAvailable()).isTrue();
+
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        StompHeaders connect = new StompHeaders();
+        connect.add("Authorization", "Bearer alice-token");
+        session = client.connectAsync("ws://localhost:" + server.getWebServer().getPort()
+                        + "/ws/websocket", new WebSocketHttpHeaders(), connect,
+                new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        });
+
+        // The subscription reaches the broker asynchronously — send until it lands
+        SimpMessagingTemplate template = server.getBean(SimpMessagingTemplate.class);
+        String message = null;
+        for (int i = 0; i < 50 && message == null; i++) {
+            template.convertAndSendToUser("alice", "/queue/messages", "hello");
+            message = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertThat(message).isEqualTo("hello");
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.bokbok.meow.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig {
+
+    public static final String SIDE_EFFECT_EXECUTOR = "chatSideEffectExecutor";
+    public static final String OVERFLOW_EXECUTOR = "chatSideEffectOverflowExecutor";
+    public static final String ACK_EXECUTOR = "chatAckExecutor";
+
+    // A side effect that must not vanish when the pool is saturated: instead
+    // of dropping it, the rejection handler asks for a cheaper fallback and
+    // runs that on the overflow thread. Called on the submitting thread, so
+    // degrade() must not block.
+    public interface DegradableTask extends Runnable {
+        Runnable degrade();
+    }
+
+    @Value("${chat.side-effects.core-size:4}")
+    private int coreSize;
+
+    @Value("${chat.side-effects.max-size:16}")
+    private int maxSize;
+
+    @Value("${chat.side-effects.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${chat.side-effects.overflow-capacity:10000}")
+    private int overflowCapacity;
+
+    @Value("${chat.side-effects.ack-threads:4}")
+    private int ackThreads;
+
+    @Value("${chat.virtual-threads.side-effect-concurrency:500}")
+    private int virtualConcurrencyLimit;
+
+    // Pushes, FCM calls and presence refreshes run here after the send
+    // transaction commits, so they never hold a DB connection. Submitting
+    // must not run or wait on the caller — that is the committing thread —
+    // so once the threads and the queue are full the task is handed to the
+    // overflow thread, degraded first if it knows how (see DegradableTask).
+    @Bean(name = SIDE_EFFECT_EXECUTOR)
+    public AsyncTaskExecutor chatSideEffectExecutor(
+            MeterRegistry meterRegistry,
+            VirtualThreads virtualThreads,
+            @Qualifier(OVERFLOW_EXECUTOR) AsyncTaskExecutor overflow) {
+        Counter rejected = Counter.builder("chat.dispatch.rejected")
+                .description("Side-effect tasks sent to the overflow thread because the pool was saturated")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (virtualThreads.isEnabled()) {
+            // Cheap threads, so run up to the limit at once; the queue
+            // still bounds the backlog
+            executor.setVirtualThreads(true);
+            executor.setCorePoolSize(virtualConcurrencyLimit);
+            executor.setMaxPoolSize(virtualConcurrencyLimit);
+        } else {
+            executor.setCorePoolSize(coreSize);
+            executor.setMaxPoolSize(maxSize);
+        }
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("chat-side-effect-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.debug("Side-effect pool saturated, degrading task to the overflow thread");
+            overflow.execute(task instanceof DegradableTask degradable
+                    ? degradable.degrade()
+                    : task);
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+
+        Gauge.builder("chat.dispatch.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Side-effect tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("chat.dispatch.active", executor,
+                        ThreadPoolTaskExecutor::getActiveCount)
+                .description("Side-effect tasks currently running")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    // One thread behind its own bounded queue. What reaches it has already
+    // given up the work a DB read can redo (the inbox), so what is lost when
+    // this fills too is a live push or an FCM call — clients catch up on
+    // their next sync.
+    @Bean(name = OVERFLOW_EXECUTOR)
+    public AsyncTaskExecutor chatSideEffectOverflowExecutor(MeterRegistry meterRegistry) {
+        Counter dropped = Counter.builder("chat.dispatch.dropped")
+                .description("Side-effect tasks dropped because the overflow queue was full")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(overflowCapacity);
+        executor.setThreadNamePrefix("chat-side-effect-overflow-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            dropped.increment();
+            log.warn("Side-effect overflow full, dropping task");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    // Finishes write-behind sends once their batch commits (dedup record,
+    // replay lookup, the caller's reply). Never sheds work: an ack that is
+    // dropped leaves the sender waiting forever. The queue is unbounded
+    // because the write-behind queue capacity already bounds pending acks.
+    @Bean(name = ACK_EXECUTOR)
+    public AsyncTaskExecutor chatAckExecutor(VirtualThreads virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (virtualThreads.isEnabled()) {
+            executor.setVirtualThreads(true);
+            executor.setCorePoolSize(virtualConcurrencyLimit);
+            executor.setMaxPoolSize(virtualConcurrencyLimit);
+        } else {
+            executor.setCorePoolSize(ackThreads);
+            executor.setMaxPoolSize(ackThreads);
+        }
+        executor.setThreadNamePrefix("chat-ack-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,99 @@
+package com.bokbok.meow.config;
+
+import com.bokbok.meow.websocket.CborMessageConverter;
+import com.bokbok.meow.websocket.JsonWithCborMessageConverter;
+import com.bokbok.meow.websocket.PayloadFormats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+// Per-session binary frames. A client sends "payload-format: cbor" on
+// CONNECT; from then on frames to that session carry the message's CBOR
+// body as binary WebSocket messages, and its application/cbor SEND
+// frames are decoded. JSON is default; SockJS sessions always get it.
+@Configuration
+@RequiredArgsConstructor
+public class BinaryPayloadConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final PayloadFormats payloadFormats;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Ahead of Boot's JSON converter, which an earlier configurer added
+        messageConverters.add(0, new JsonWithCborMessageConverter(jsonMapper, payloadFormats));
+        messageConverters.add(new CborMessageConverter(payloadFormats.cborMapper()));
+        return true;  // keep the default JSON / String / byte[] converters
+    }
+
+    // Binary WebSocket frames for CBOR sessions
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(payloadFormats);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor
+                        .getAccessor(message, StompHeaderAccessor.class);
+                if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    payloadFormats.negotiate(accessor.getSessionId(),
+                            accessor.getFirstNativeHeader(PayloadFormats.HEADER));
+                }
+                return message;
+            }
+        });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                MessageHeaders headers = message.getHeaders();
+                if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                        || !payloadFormats.isCbor(SimpMessageHeaderAccessor.getSessionId(headers))
+                        || !(message.getPayload() instanceof byte[] json)) {
+                    return message;
+                }
+
+                MimeType contentType = headers.get(MessageHeaders.CONTENT_TYPE, MimeType.class);
+                if (contentType == null
+                        || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                    return message;
+                }
+
+                // Relay-mode frames come back from the broker as bare JSON
+                byte[] cbor = headers.get(PayloadFormats.CBOR_BODY_HEADER)
+                        instanceof PayloadFormats.CborBody body
+                        ? body.bytes()
+                        : payloadFormats.cborBodyOfJson(json, jsonMapper).bytes();
+
+                MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+                accessor.setContentType(CborMessageConverter.APPLICATION_CBOR);
+                return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+            }
+        });
+    }
+}
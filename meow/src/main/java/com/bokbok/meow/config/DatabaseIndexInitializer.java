@@ -0,0 +1,43 @@
+package com.bokbok.meow.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Indexes that JPA @Index cannot express (partial / expression indexes).
+// Runs after Hibernate's ddl-auto update, so the tables already exist.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseIndexInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final List<String> INDEXES = List.of(
+            // Only undelivered rows — keeps reconnect marking off a full scan
+            "CREATE INDEX IF NOT EXISTS idx_messages_undelivered " +
+                    "ON messages (conversation_id) WHERE status = 'SENT'",
+
+            // Idempotent sends — a client message ID is unique per sender.
+            // Partial, so the many messages without one cost nothing.
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_messages_sender_client_id " +
+                    "ON messages (sender_id, client_message_id) " +
+                    "WHERE client_message_id IS NOT NULL"
+    );
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String ddl : INDEXES) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (Exception e) {
+                log.error("Index creation failed [{}]: {}", ddl, e.getMessage());
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bokbok.meow.config;
 
 import com.bokbok.meow.security.JwtAuthFilter;
 import com.bokbok.meow.security.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,6 +34,9 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Async results (e.g. /api/chat/send) are dispatched
+                        // again; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Allow HEAD and GET on health (for UptimeRobot)
                         .requestMatchers(HttpMethod.HEAD,
                                 "/actuator/health",
@@ -0,0 +1,39 @@
+package com.bokbok.meow.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+// spring.threads.virtual.enabled switches Tomcat (via Boot) and our own
+// executors to virtual threads. Only active on a Java 21+ runtime; on
+// older JVMs everything keeps its platform thread pool.
+@Component
+@Slf4j
+public class VirtualThreads {
+
+    private final boolean enabled;
+
+    public VirtualThreads(Environment environment) {
+        this.enabled = Threading.VIRTUAL.isActive(environment);
+        if (!enabled && environment.getProperty(
+                "spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("Virtual threads requested but the runtime is Java {}; using platform threads",
+                    Runtime.version().feature());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // One virtual thread per task. The limit makes submitters wait
+    // instead of piling thousands of tasks onto the Hikari pool.
+    public SimpleAsyncTaskExecutor executor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+}
@@ -1,22 +1,38 @@
 package com.bokbok.meow.config;
 import lombok.extern.slf4j.Slf4j;
 import com.bokbok.meow.security.JwtUtil;
+import com.bokbok.meow.websocket.DeflateHandshakeHandler;
+import com.bokbok.meow.websocket.TransportMetrics;
+import com.bokbok.meow.websocket.cluster.ClusterRoutingInterceptor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.TcpClient;
 
+import java.time.Duration;
 import java.util.Collections;
 
 @Configuration
@@ -26,27 +42,170 @@ import java.util.Collections;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtUtil jwtUtil;
+    private final ObjectProvider<ClusterRoutingInterceptor> clusterRouting;
+    private final VirtualThreads virtualThreads;
+    private final DeflateHandshakeHandler handshakeHandler;
+    private final TransportMetrics transportMetrics;
+
+    // Largest inbound STOMP frame; bigger ones close the session
+    @Value("${chat.ws.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    // A session that cannot take a frame within this time, or that has
+    // more than the buffer limit queued, is closed as a slow consumer
+    @Value("${chat.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chat.ws.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.ws.time-to-first-message-ms:60000}")
+    private int timeToFirstMessageMs;
+
+    // STOMP heart-beat the simple broker sends and expects; a client that
+    // stays silent for 3× this is disconnected
+    @Value("${chat.ws.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    private TaskScheduler brokerTaskScheduler;
+
+    @Value("${chat.virtual-threads.inbound-concurrency:2000}")
+    private int inboundConcurrencyLimit;
+
+    @Value("${chat.virtual-threads.outbound-concurrency:2000}")
+    private int outboundConcurrencyLimit;
+
+    // simple = in-memory broker; relay = external STOMP broker (RabbitMQ, Artemis)
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    // Simple broker's destination → subscriptions cache. Every session
+    // has its own /queue/...-user{session} destinations, so the Spring
+    // default of 1024 turns each send past ~1000 sessions into a scan of
+    // every subscription.
+    @Value("${chat.broker.subscription-cache-limit:65536}")
+    private int subscriptionCacheLimit;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${chat.broker.relay.heartbeat-send-ms:10000}")
+    private long relayHeartbeatSendMs;
+
+    @Value("${chat.broker.relay.heartbeat-receive-ms:10000}")
+    private long relayHeartbeatReceiveMs;
+
+    // The relay opens one TCP connection per client session plus a
+    // shared system connection, so this caps relayed sessions per node
+    @Value("${chat.broker.relay.max-connections:10000}")
+    private int relayMaxConnections;
+
+    @Value("${chat.broker.relay.acquire-timeout-ms:5000}")
+    private long relayAcquireTimeoutMs;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // Clients subscribe to topics with /topic or /queue prefix
-        registry.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equals(brokerMode)) {
+            configureBrokerRelay(registry);
+        } else {
+            // Clients subscribe to topics with /topic or /queue prefix
+            registry.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                    .setTaskScheduler(brokerTaskScheduler);
+            registry.setCacheLimit(subscriptionCacheLimit);
+            // Cluster mode: /user/** messages also go to nodes that hold
+            // the recipient's other sessions (chat.cluster.enabled)
+            clusterRouting.ifAvailable(interceptor ->
+                    registry.configureBrokerChannel().interceptors(interceptor));
+        }
+        // Frames for one session leave in publish order even when the
+        // outbound executor runs them on different threads — in virtual
+        // mode every frame gets a thread of its own
+        registry.setPreservePublishOrder(true);
         // Client sends messages to /app prefix
         registry.setApplicationDestinationPrefixes("/app");
         // User-specific messages prefix
         registry.setUserDestinationPrefix("/user");
     }
 
+    // The broker's own scheduler; lazy because it is defined by the same
+    // configuration that calls configureMessageBroker
+    @Autowired
+    public void setBrokerTaskScheduler(
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.brokerTaskScheduler = taskScheduler;
+    }
+
+    private void configureBrokerRelay(MessageBrokerRegistry registry) {
+        if (clusterRouting.getIfAvailable() != null) {
+            log.warn("chat.cluster.enabled is ignored in relay mode — the broker routes between nodes");
+        }
+
+        ConnectionProvider pool = ConnectionProvider.builder("stomp-broker-relay")
+                .maxConnections(relayMaxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(relayAcquireTimeoutMs))
+                .build();
+        TcpClient tcpClient = TcpClient.create(pool).host(relayHost).port(relayPort);
+
+        StompBrokerRelayRegistration relay = registry
+                .enableStompBrokerRelay("/topic", "/queue")
+                .setTcpClient(new ReactorNettyTcpClient<>(tcpClient, new StompReactorNettyCodec()))
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                .setSystemHeartbeatSendInterval(relayHeartbeatSendMs)
+                .setSystemHeartbeatReceiveInterval(relayHeartbeatReceiveMs)
+                // Users on other nodes: unresolved /user messages and the
+                // user registry are shared through the broker
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+        if (!relayVirtualHost.isBlank()) {
+            relay.setVirtualHost(relayVirtualHost);
+        }
+        log.info("STOMP broker relay → {}:{}", relayHost, relayPort);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // Same for a session's inbound frames on the inbound executor
+        registry.setPreserveReceiveOrder(true);
         registry.addEndpoint("/ws")
+                .setHandshakeHandler(handshakeHandler)  // chat.ws.deflate.enabled
                 .setAllowedOriginPatterns("*")
                 .withSockJS(); // fallback for browsers
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(transportMetrics);
+    }
+
     // Intercept WebSocket CONNECT and validate JWT
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Handlers block on Postgres/Redis — cheap to park on virtual threads
+        if (virtualThreads.isEnabled()) {
+            registration.executor(virtualThreads.executor(
+                    "ws-inbound-", inboundConcurrencyLimit));
+        }
+
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -71,9 +230,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                     if (authHeader != null && authHeader.startsWith("Bearer ")) {
                         String token = authHeader.substring(7);
 
-                        if (jwtUtil.isTokenValid(token)) {
-                            String userId = jwtUtil.extractUserId(token);
-
+                        String userId = jwtUtil.validateAndGetUserId(token);
+                        if (userId != null) {
                             UsernamePasswordAuthenticationToken auth =
                                     new UsernamePasswordAuthenticationToken(
                                             userId, null, Collections.emptyList()
@@ -93,4 +251,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads.isEnabled()) {
+            registration.executor(virtualThreads.executor(
+                    "ws-outbound-", outboundConcurrencyLimit));
+        }
+    }
+}
@@ -8,7 +8,9 @@ import com.bokbok.meow.modules.auth.entity.RefreshToken;
 import com.bokbok.meow.modules.auth.repository.RefreshTokenRepository;
 import com.bokbok.meow.modules.user.entity.User;
 import com.bokbok.meow.modules.user.repository.UserRepository;
+import com.bokbok.meow.modules.user.service.UserStatusStore;
 import com.bokbok.meow.security.JwtUtil;
+import com.bokbok.meow.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -27,6 +29,8 @@ public class AuthService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserStatusStore userStatusStore;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${jwt.refresh-token-expiry}")
     private long refreshTokenExpiry;
@@ -62,9 +66,8 @@ public class AuthService {
             throw new BadCredentialsException("Invalid phone or password");
         }
 
-        // Update status to online
-        user.setStatus(User.UserStatus.ONLINE);
-        userRepository.save(user);
+        // Update status to online — written to Postgres behind
+        userStatusStore.record(user.getId(), User.UserStatus.ONLINE, null);
 
         return generateAuthResponse(user);
     }
@@ -96,13 +99,12 @@ public class AuthService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Revoke all refresh tokens
+        // Revoke all refresh tokens, and the access tokens issued so far
         refreshTokenRepository.deleteAllByUser(user);
+        tokenRevocationService.revokeAll(userId);
 
         // Set status offline
-        user.setStatus(User.UserStatus.OFFLINE);
-        user.setLastSeen(LocalDateTime.now());
-        userRepository.save(user);
+        userStatusStore.record(userId, User.UserStatus.OFFLINE, LocalDateTime.now());
     }
 
     // ── Private Helper ──────────────────────────────────────────
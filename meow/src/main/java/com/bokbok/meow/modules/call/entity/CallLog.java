@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 import java.time.LocalDateTime;
 @Entity
 @Table(name = "call_logs")
@@ -15,8 +16,10 @@ import java.time.LocalDateTime;
 @Builder
 public class CallLog {
 
+    // Time-ordered (UUIDv7) so inserts append to the PK index;
+    // existing random v4 IDs are still valid strings in the same column
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,9 @@
 package com.bokbok.meow.modules.chat.controller;
 
+import com.bokbok.meow.modules.chat.dto.ConversationCursorPage;
 import com.bokbok.meow.modules.chat.dto.ConversationResponse;
+import com.bokbok.meow.modules.chat.dto.MarkReadRequest;
+import com.bokbok.meow.modules.chat.dto.MessageCursorPage;
 import com.bokbok.meow.modules.chat.dto.MessageResponse;
 import com.bokbok.meow.modules.chat.dto.SendMessageRequest;
 import com.bokbok.meow.modules.chat.service.ChatService;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -28,18 +32,33 @@ public class ChatController {
     private final ChatService chatService;
 
     // POST /api/chat/send → send via REST (fallback if WebSocket unavailable)
+    // Answered asynchronously — the request thread is freed while a
+    // write-behind batch flushes
     @PostMapping("/send")
-    public ResponseEntity<MessageResponse> sendMessage(
+    public CompletableFuture<ResponseEntity<MessageResponse>> sendMessage(
             @Valid @RequestBody SendMessageRequest request) {
         String userId = SecurityUtils.getCurrentUserId();
-        return ResponseEntity.ok(chatService.sendMessage(userId, request));
+        return chatService.sendMessage(userId, request).thenApply(ResponseEntity::ok);
     }
 
-    // GET /api/chat/conversations → get all my conversations
+    // GET /api/chat/conversations?page=0&size=50 → my conversations, most recent first
     @GetMapping("/conversations")
-    public ResponseEntity<List<ConversationResponse>> getConversations() {
+    public ResponseEntity<List<ConversationResponse>> getConversations(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         String userId = SecurityUtils.getCurrentUserId();
-        return ResponseEntity.ok(chatService.getMyConversations(userId));
+        return ResponseEntity.ok(chatService.getMyConversations(userId, page, size));
+    }
+
+    // GET /api/chat/conversations/cursor?before=... → keyset-paged chat list
+    @GetMapping("/conversations/cursor")
+    public ResponseEntity<ConversationCursorPage> getConversationsByCursor(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int size) {
+        String userId = SecurityUtils.getCurrentUserId();
+        return ResponseEntity.ok(
+                chatService.getMyConversationsByCursor(userId, before, size)
+        );
     }
 
     // GET /api/chat/conversations/{conversationId}/messages
@@ -54,6 +73,34 @@ public class ChatController {
         );
     }
 
+    // GET /api/chat/conversations/{conversationId}/messages/cursor?before=...
+    // Keyset variant — pass nextCursor back as before (older) or after (newer)
+    @GetMapping("/conversations/{conversationId}/messages/cursor")
+    public ResponseEntity<MessageCursorPage> getMessagesByCursor(
+            @PathVariable String conversationId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "30") int size) {
+        String userId = SecurityUtils.getCurrentUserId();
+        return ResponseEntity.ok(
+                chatService.getMessagesByCursor(conversationId, userId, before, after, size)
+        );
+    }
+
+    // POST /api/chat/conversations/{conversationId}/read → advance read watermark
+    @PostMapping("/conversations/{conversationId}/read")
+    public ResponseEntity<Map<String, String>> markRead(
+            @PathVariable String conversationId,
+            @RequestBody(required = false) MarkReadRequest request) {
+        String userId = SecurityUtils.getCurrentUserId();
+        chatService.markRead(
+                conversationId,
+                userId,
+                request != null ? request.getUpToMessageId() : null
+        );
+        return ResponseEntity.ok(Map.of("message", "Conversation marked as read"));
+    }
+
     // DELETE /api/chat/messages/{messageId}
     @DeleteMapping("/messages/{messageId}")
     public ResponseEntity<Map<String, String>> deleteMessage(
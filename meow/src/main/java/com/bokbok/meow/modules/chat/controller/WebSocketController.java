@@ -1,16 +1,19 @@
 package com.bokbok.meow.modules.chat.controller;
 
+import com.bokbok.meow.modules.chat.dto.MarkReadRequest;
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
 import com.bokbok.meow.modules.chat.dto.SendMessageRequest;
 import com.bokbok.meow.modules.chat.dto.TypingEvent;
 import com.bokbok.meow.modules.chat.service.ChatService;
-import com.bokbok.meow.websocket.PresenceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 @Controller
 @Slf4j
@@ -19,17 +22,21 @@ public class WebSocketController {
 
     private final ChatService chatService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final PresenceService presenceService;
 
-    // Client sends to /app/chat.send
+    // Client sends to /app/chat.send. A fresh send reaches the sender
+    // through MessageSentListener; a retried one gets the original back
+    // on the sending session's /user/queue/messages. The reply is sent when
+    // the future completes, so this thread never waits for a write-behind flush.
     @MessageMapping("/chat.send")
-    public void sendMessage(@Payload SendMessageRequest request,
-                            Principal principal) {
+    @SendToUser(destinations = "/queue/messages", broadcast = false)
+    public CompletableFuture<MessageResponse> sendMessage(@Payload SendMessageRequest request,
+                                       Principal principal) {
         if (principal == null) {
             log.warn("Message rejected: unauthenticated WebSocket session");
-            return;
+            return null;
         }
-        chatService.sendMessage(principal.getName(), request);
+        return chatService.send(principal.getName(), request)
+                .thenApply(result -> result.replayed() ? result.message() : null);
     }
 
     @MessageMapping("/chat.typing")
@@ -44,10 +51,21 @@ public class WebSocketController {
         );
     }
 
+    // Client sends to /app/chat.read → sender gets one READ watermark frame
+    @MessageMapping("/chat.read")
+    public void markRead(@Payload MarkReadRequest request,
+                         Principal principal) {
+        if (principal == null) return;
+        chatService.markRead(
+                request.getConversationId(),
+                principal.getName(),
+                request.getUpToMessageId()
+        );
+    }
+
     @MessageMapping("/chat.delivered")
     public void markDelivered(Principal principal) {
         if (principal == null) return;
         chatService.markDelivered(principal.getName());
-        presenceService.refreshPresence(principal.getName());
     }
 }
\ No newline at end of file
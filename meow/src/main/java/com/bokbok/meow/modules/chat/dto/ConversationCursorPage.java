@@ -0,0 +1,18 @@
+package com.bokbok.meow.modules.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationCursorPage {
+    private List<ConversationResponse> conversations;  // most recent first
+    private String nextCursor;                         // null when there is nothing more
+    private boolean hasMore;
+}
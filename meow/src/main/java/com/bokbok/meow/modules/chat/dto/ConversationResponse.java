@@ -19,4 +19,5 @@ public class ConversationResponse {
     private String otherUserStatus;
     private String lastMessagePreview;
     private LocalDateTime lastMessageAt;
+    private int unreadCount;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.bokbok.meow.modules.chat.dto;
+
+import lombok.Data;
+
+@Data
+public class MarkReadRequest {
+    private String conversationId;  // WebSocket only — REST takes it from the path
+    private String upToMessageId;   // null = everything up to the latest message
+}
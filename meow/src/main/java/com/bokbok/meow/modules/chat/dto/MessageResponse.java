@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 public class MessageResponse {
 
     private String id;
+    private String clientMessageId;
     private String conversationId;
     private String senderId;
     private String senderName;
@@ -28,9 +29,22 @@ public class MessageResponse {
     private LocalDateTime deliveredAt;
     private LocalDateTime readAt;
 
+    // Status comes from the receiver's read watermark when it covers the message
+    public static MessageResponse fromEntity(Message message,
+                                             String receiverId,
+                                             LocalDateTime receiverReadUpTo) {
+        MessageResponse response = fromEntity(message, receiverId);
+        if (receiverReadUpTo != null
+                && !message.getCreatedAt().isAfter(receiverReadUpTo)) {
+            response.setStatus(Message.MessageStatus.READ.name());
+        }
+        return response;
+    }
+
     public static MessageResponse fromEntity(Message message, String receiverId) {
         return MessageResponse.builder()
                 .id(message.getId())
+                .clientMessageId(message.getClientMessageId())
                 .conversationId(message.getConversation().getId())
                 .senderId(message.getSender().getId())
                 .senderName(message.getSender().getName())
@@ -1,14 +1,28 @@
 package com.bokbok.meow.modules.chat.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Data
+@Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class MessageStatusUpdate {
     private String messageId;
     private String conversationId;
     private String status;  // DELIVERED or READ
+
+    // DELIVERED on reconnect: all messages of one sender in this
+    // conversation that were delivered together
+    private List<String> messageIds;
+
+    // READ only: every message in the conversation created at or before
+    // this time has been read by readerId
+    private String readerId;
+    private LocalDateTime readUpTo;
 }
\ No newline at end of file
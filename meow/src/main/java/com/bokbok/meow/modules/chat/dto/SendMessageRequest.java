@@ -1,6 +1,7 @@
 package com.bokbok.meow.modules.chat.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
@@ -16,4 +17,7 @@ public class SendMessageRequest {
 
     private String mediaUrl;        // Cloudinary URL — set after upload
     private Integer mediaDuration;  // For voice notes (seconds)
+
+    @Size(max = 64, message = "Client message ID is too long")
+    private String clientMessageId; // Optional — retries with the same ID are deduplicated
 }
\ No newline at end of file
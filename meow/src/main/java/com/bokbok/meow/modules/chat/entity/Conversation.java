@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +15,13 @@ import java.util.List;
 @Table(name = "conversations",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"user1_id", "user2_id"})
+        },
+        indexes = {
+                // Chat list: one index per side, ordered by last activity
+                @Index(name = "idx_conversations_user1_last",
+                        columnList = "user1_id, last_message_at"),
+                @Index(name = "idx_conversations_user2_last",
+                        columnList = "user2_id, last_message_at")
         }
 )
 @Data
@@ -22,8 +30,10 @@ import java.util.List;
 @Builder
 public class Conversation {
 
+    // Time-ordered (UUIDv7) so inserts append to the PK index;
+    // existing random v4 IDs are still valid strings in the same column
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private String id;
 
     // Always store user1_id < user2_id alphabetically
@@ -45,6 +55,19 @@ public class Conversation {
 
     private LocalDateTime lastMessageAt;
 
+    // Read watermarks — each user has read everything up to this time
+    private LocalDateTime user1ReadUpTo;
+
+    private LocalDateTime user2ReadUpTo;
+
+    // Unread messages per side — incremented on send, recounted on read.
+    // The column default backfills existing rows when ddl-auto adds them.
+    @Column(columnDefinition = "integer not null default 0")
+    private int user1UnreadCount;
+
+    @Column(columnDefinition = "integer not null default 0")
+    private int user2UnreadCount;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 }
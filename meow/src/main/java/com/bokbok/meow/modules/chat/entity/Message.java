@@ -6,17 +6,26 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        indexes = {
+                // Backs keyset pagination of a conversation's history
+                @Index(name = "idx_messages_conversation_created",
+                        columnList = "conversation_id, created_at, id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Message {
 
+    // Time-ordered (UUIDv7) so inserts append to the PK index;
+    // existing random v4 IDs are still valid strings in the same column
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +36,10 @@ public class Message {
     @JoinColumn(name = "sender_id", nullable = false)
     private User sender;
 
+    // Optional ID generated by the client so retries can be deduplicated;
+    // unique per sender (uk_messages_sender_client_id)
+    private String clientMessageId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MessageType type;
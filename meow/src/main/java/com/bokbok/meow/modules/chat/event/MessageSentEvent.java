@@ -0,0 +1,14 @@
+package com.bokbok.meow.modules.chat.event;
+
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import com.bokbok.meow.modules.user.entity.User;
+
+// Published inside sendMessage and handled once the transaction commits;
+// for write-behind sends, published once the flusher's batch commits
+public record MessageSentEvent(
+        MessageResponse message,
+        User sender,
+        User receiver,
+        String conversationId,
+        String preview
+) {}
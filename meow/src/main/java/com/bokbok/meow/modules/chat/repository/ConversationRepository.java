@@ -1,11 +1,16 @@
 package com.bokbok.meow.modules.chat.repository;
 
+import com.bokbok.meow.modules.chat.dto.ConversationResponse;
 import com.bokbok.meow.modules.chat.entity.Conversation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,8 +25,130 @@ public interface ConversationRepository extends JpaRepository<Conversation, Stri
             @Param("userId2") String userId2
     );
 
-    @Query("SELECT c FROM Conversation c WHERE " +
-            "c.user1.id = :userId OR c.user2.id = :userId " +
-            "ORDER BY c.lastMessageAt DESC NULLS LAST")
-    List<Conversation> findAllByUserId(@Param("userId") String userId);
+    // Get-or-create in one round trip. user1Id < user2Id must already be
+    // sorted. A concurrent insert that commits after this statement's
+    // snapshot returns no row — callers fall back to findIdByPair.
+    @Query(value = "WITH inserted AS (" +
+            "INSERT INTO conversations (id, user1_id, user2_id, " +
+            "user1_unread_count, user2_unread_count, created_at) " +
+            "VALUES (:id, :user1Id, :user2Id, 0, 0, :createdAt) " +
+            "ON CONFLICT (user1_id, user2_id) DO NOTHING " +
+            "RETURNING id) " +
+            "SELECT id AS \"id\", true AS \"created\" FROM inserted " +
+            "UNION ALL " +
+            "SELECT id AS \"id\", false AS \"created\" FROM conversations " +
+            "WHERE user1_id = :user1Id AND user2_id = :user2Id",
+            nativeQuery = true)
+    List<PairLookup> getOrCreate(
+            @Param("id") String id,
+            @Param("user1Id") String user1Id,
+            @Param("user2Id") String user2Id,
+            @Param("createdAt") LocalDateTime createdAt
+    );
+
+    @Query("SELECT c.id FROM Conversation c " +
+            "WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<String> findIdByPair(
+            @Param("user1Id") String user1Id,
+            @Param("user2Id") String user2Id
+    );
+
+    // Everyone this user has a conversation with — presence fan-out targets
+    @Query("SELECT CASE WHEN c.user1.id = :userId THEN c.user2.id ELSE c.user1.id END " +
+            "FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId")
+    List<String> findPartnerIds(@Param("userId") String userId);
+
+    interface PairLookup {
+        String getId();
+        Boolean getCreated();
+    }
+
+    // Chat list projections — one query that joins the other participant
+    // straight into ConversationResponse instead of 1 + 2N lazy loads
+    String SUMMARY_SELECT = "SELECT new com.bokbok.meow.modules.chat.dto.ConversationResponse(" +
+            "c.id, o.id, o.name, o.avatarUrl, cast(o.status as String), " +
+            "c.lastMessagePreview, c.lastMessageAt, " +
+            "CASE WHEN c.user1.id = :userId THEN c.user1UnreadCount ELSE c.user2UnreadCount END) " +
+            "FROM Conversation c JOIN User o ON o.id = " +
+            "CASE WHEN c.user1.id = :userId THEN c.user2.id ELSE c.user1.id END " +
+            "WHERE (c.user1.id = :userId OR c.user2.id = :userId) ";
+
+    @Query(SUMMARY_SELECT +
+            "ORDER BY c.lastMessageAt DESC NULLS LAST, c.id DESC")
+    List<ConversationResponse> findSummariesByUserId(@Param("userId") String userId);
+
+    // Keyset pages on (lastMessageAt, id). Conversations are created with
+    // their first message, so only rows with a last message are paged.
+    @Query(SUMMARY_SELECT +
+            "AND c.lastMessageAt IS NOT NULL " +
+            "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    Slice<ConversationResponse> findLatestSummaries(
+            @Param("userId") String userId,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY_SELECT +
+            "AND c.lastMessageAt IS NOT NULL " +
+            "AND (c.lastMessageAt, c.id) < (:lastMessageAt, :id) " +
+            "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    Slice<ConversationResponse> findSummariesBefore(
+            @Param("userId") String userId,
+            @Param("lastMessageAt") LocalDateTime lastMessageAt,
+            @Param("id") String id,
+            Pageable pageable
+    );
+
+    // Sets the preview and bumps the receiver's unread counter atomically,
+    // so concurrent sends never overwrite each other's increments
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+            "c.lastMessagePreview = :preview, " +
+            "c.lastMessageAt = :at, " +
+            "c.user1UnreadCount = c.user1UnreadCount + CASE WHEN c.user1.id = :senderId THEN 0 ELSE 1 END, " +
+            "c.user2UnreadCount = c.user2UnreadCount + CASE WHEN c.user2.id = :senderId THEN 0 ELSE 1 END " +
+            "WHERE c.id = :conversationId")
+    int recordMessage(
+            @Param("conversationId") String conversationId,
+            @Param("senderId") String senderId,
+            @Param("preview") String preview,
+            @Param("at") LocalDateTime at
+    );
+
+    String UNREAD_AFTER_UP_TO = "cast((SELECT count(m) FROM Message m " +
+            "WHERE m.conversation.id = c.id AND m.sender.id <> :userId " +
+            "AND m.createdAt > :upTo) as Integer)";
+
+    // Moves the caller's read watermark forward in one statement and
+    // recounts their unread messages after it (zero when fully caught up).
+    // Returns 0 if the user is not a participant or it was already past upTo.
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+            "c.user1ReadUpTo = CASE WHEN c.user1.id = :userId THEN :upTo ELSE c.user1ReadUpTo END, " +
+            "c.user2ReadUpTo = CASE WHEN c.user2.id = :userId THEN :upTo ELSE c.user2ReadUpTo END, " +
+            "c.user1UnreadCount = CASE WHEN c.user1.id = :userId THEN " + UNREAD_AFTER_UP_TO +
+            " ELSE c.user1UnreadCount END, " +
+            "c.user2UnreadCount = CASE WHEN c.user2.id = :userId THEN " + UNREAD_AFTER_UP_TO +
+            " ELSE c.user2UnreadCount END " +
+            "WHERE c.id = :conversationId AND (" +
+            "(c.user1.id = :userId AND (c.user1ReadUpTo IS NULL OR c.user1ReadUpTo < :upTo)) OR " +
+            "(c.user2.id = :userId AND (c.user2ReadUpTo IS NULL OR c.user2ReadUpTo < :upTo)))")
+    int advanceReadWatermark(
+            @Param("conversationId") String conversationId,
+            @Param("userId") String userId,
+            @Param("upTo") LocalDateTime upTo
+    );
+
+    @Query("SELECT CASE WHEN c.user1.id = :userId THEN c.user1UnreadCount " +
+            "ELSE c.user2UnreadCount END " +
+            "FROM Conversation c WHERE c.id = :conversationId")
+    int findUnreadCount(
+            @Param("conversationId") String conversationId,
+            @Param("userId") String userId
+    );
+
+    // Total across all chats — used as the push notification badge
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.user1.id = :userId " +
+            "THEN c.user1UnreadCount ELSE c.user2UnreadCount END), 0) " +
+            "FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId")
+    long sumUnreadByUserId(@Param("userId") String userId);
 }
\ No newline at end of file
@@ -8,8 +8,11 @@ import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, String> {
@@ -26,10 +29,66 @@ public interface MessageRepository extends JpaRepository<Message, String> {
             Pageable pageable
     );
 
-    // Undelivered messages for a user (to send on reconnect)
-    @Query("SELECT m FROM Message m WHERE " +
-            "m.conversation.id IN (" +
-            "  SELECT c.id FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId" +
-            ") AND m.sender.id != :userId AND m.status = 'SENT'")
-    List<Message> findUndeliveredMessages(@Param("userId") String userId);
+    // Keyset pagination — (created_at, id) comparisons walk the composite
+    // index directly, so deep pages cost the same as the first one.
+    // Slice fetches size + 1 rows instead of running a COUNT.
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+            "WHERE m.conversation.id = :conversationId AND m.isDeleted = false " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findLatest(
+            @Param("conversationId") String conversationId,
+            Pageable pageable
+    );
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+            "WHERE m.conversation.id = :conversationId AND m.isDeleted = false " +
+            "AND (m.createdAt, m.id) < (:createdAt, :id) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findBefore(
+            @Param("conversationId") String conversationId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id,
+            Pageable pageable
+    );
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+            "WHERE m.conversation.id = :conversationId AND m.isDeleted = false " +
+            "AND (m.createdAt, m.id) > (:createdAt, :id) " +
+            "ORDER BY m.createdAt ASC, m.id ASC")
+    Slice<Message> findAfter(
+            @Param("conversationId") String conversationId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") String id,
+            Pageable pageable
+    );
+
+    // Backed by uk_messages_sender_client_id
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+            "WHERE m.sender.id = :senderId AND m.clientMessageId = :clientMessageId")
+    Optional<Message> findBySenderAndClientMessageId(
+            @Param("senderId") String senderId,
+            @Param("clientMessageId") String clientMessageId
+    );
+
+    // Marks everything waiting for this user as DELIVERED in one statement
+    // and returns the affected rows so senders can be notified.
+    // Uses the partial index idx_messages_undelivered (status = 'SENT').
+    @Query(value = "UPDATE messages m SET status = 'DELIVERED', delivered_at = :deliveredAt " +
+            "FROM conversations c " +
+            "WHERE m.conversation_id = c.id " +
+            "AND (c.user1_id = :userId OR c.user2_id = :userId) " +
+            "AND m.sender_id <> :userId AND m.status = 'SENT' " +
+            "RETURNING m.id AS \"id\", m.conversation_id AS \"conversationId\", " +
+            "m.sender_id AS \"senderId\"",
+            nativeQuery = true)
+    List<DeliveredMessage> markDelivered(
+            @Param("userId") String userId,
+            @Param("deliveredAt") LocalDateTime deliveredAt
+    );
+
+    interface DeliveredMessage {
+        String getId();
+        String getConversationId();
+        String getSenderId();
+    }
 }
\ No newline at end of file
@@ -1,54 +1,153 @@
 package com.bokbok.meow.modules.chat.service;
 
+import com.bokbok.meow.config.AsyncConfig;
+import com.bokbok.meow.modules.chat.dto.ConversationCursorPage;
 import com.bokbok.meow.modules.chat.dto.ConversationResponse;
+import com.bokbok.meow.modules.chat.dto.KeysetCursor;
+import com.bokbok.meow.modules.chat.dto.MessageCursorPage;
 import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import com.bokbok.meow.modules.chat.dto.MessageStatusUpdate;
 import com.bokbok.meow.modules.chat.dto.SendMessageRequest;
 import com.bokbok.meow.modules.chat.entity.Conversation;
 import com.bokbok.meow.modules.chat.entity.Message;
+import com.bokbok.meow.modules.chat.event.MessageSentEvent;
 import com.bokbok.meow.modules.chat.repository.ConversationRepository;
 import com.bokbok.meow.modules.chat.repository.MessageRepository;
-import com.bokbok.meow.modules.notification.service.NotificationService;
 import com.bokbok.meow.modules.user.entity.User;
 import com.bokbok.meow.modules.user.repository.UserRepository;
+import com.bokbok.meow.util.TimeOrderedIds;
 import com.bokbok.meow.websocket.PresenceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ChatService {
-    private final NotificationService notificationService;
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final PresenceService presenceService;
+    private final MessageWriteBehindQueue writeBehindQueue;
+    private final InboxService inboxService;
+    private final ConversationPairCache conversationPairCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageDedupService messageDedupService;
+    private final ContactGraph contactGraph;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier(AsyncConfig.ACK_EXECUTOR)
+    private final Executor ackExecutor;
 
     // ── Send a Message ───────────────────────────────────────────
 
-    @Transactional
-    public MessageResponse sendMessage(String senderId,
-                                       SendMessageRequest request) {
+    // replayed — a retried send answered with the message already stored
+    public record SendResult(MessageResponse message, boolean replayed) {}
+
+    public CompletableFuture<MessageResponse> sendMessage(String senderId,
+                                                         SendMessageRequest request) {
+        return send(senderId, request).thenApply(SendResult::message);
+    }
+
+    // Completes once the message is durable. Write-behind sends complete
+    // on the ack pool after their batch commits, so the calling
+    // thread (STOMP inbound or Tomcat) is never parked on the flush.
+    public CompletableFuture<SendResult> send(String senderId, SendMessageRequest request) {
+        String clientMessageId = request.getClientMessageId();
+        Sent sent;
+        try {
+            sent = transactionTemplate.execute(status -> write(senderId, request));
+        } catch (DataIntegrityViolationException e) {
+            // A direct write of a retry that slipped past the dedup window
+            if (clientMessageId == null) throw e;
+            return CompletableFuture.completedFuture(
+                    replayOf(senderId, request).orElseThrow(() -> e));
+        }
+        if (sent.written() == null) return CompletableFuture.completedFuture(sent.result());
+
+        // Write-behind: pushes and FCM go out once the batch commits, and
+        // only for the copy that was actually stored
+        MessageResponse response = sent.result().message();
+        sent.written().thenAccept(id -> {
+            if (id.equals(response.getId())) eventPublisher.publishEvent(sent.event());
+        });
+
+        // The sender is not acked until the row is durable
+        return writeBehindQueue.ack(sent.written()).thenApplyAsync(id -> {
+            if (!id.equals(response.getId())) {
+                // Skipped by the flusher as a duplicate — answer with the original
+                return replayOf(senderId, request)
+                        .orElseThrow(() -> new RuntimeException("Message not found"));
+            }
+            if (sent.claimed()) {
+                messageDedupService.complete(senderId, clientMessageId, response);
+            }
+            return sent.result();
+        }, ackExecutor);
+    }
+
+    // Runs in the send transaction; a queued message comes back with the
+    // flusher's future and an event that has not been published yet
+    private Sent write(String senderId, SendMessageRequest request) {
+
+        // Retried send → return the original instead of writing again
+        String clientMessageId = request.getClientMessageId();
+        boolean claimed = false;
+        if (clientMessageId != null) {
+            MessageDedupService.Claim claim =
+                    messageDedupService.claim(senderId, clientMessageId);
+            claimed = claim == MessageDedupService.Claim.CLAIMED;
+            if (!claimed) {
+                Optional<MessageResponse> replay = findReplay(
+                        senderId, clientMessageId, request.getReceiverId());
+                if (replay.isPresent()) {
+                    return new Sent(new SendResult(replay.get(), true), null, null, false);
+                }
+                if (claim == MessageDedupService.Claim.IN_FLIGHT) {
+                    throw new RuntimeException("Message is already being sent");
+                }
+            }
+        }
 
         User sender = findUser(senderId);
         User receiver = findUser(request.getReceiverId());
 
-        // Get or create conversation
-        Conversation conversation = conversationRepository
-                .findByUsers(senderId, request.getReceiverId())
-                .orElseGet(() -> createConversation(sender, receiver));
+        // Get or create conversation — cached pair lookups skip the DB
+        String conversationId = conversationPairCache.get(senderId, receiver.getId());
+        boolean created = false;
+        if (conversationId == null) {
+            ConversationRef ref = getOrCreateConversation(sender, receiver);
+            conversationId = ref.id();
+            created = ref.created();
+            conversationPairCache.putAfterCommit(senderId, receiver.getId(), conversationId);
+            if (created) contactGraph.invalidateAfterCommit(senderId, receiver.getId());
+        }
+        Conversation conversation = conversationRepository.getReferenceById(conversationId);
 
         // Build message
         Message message = Message.builder()
                 .conversation(conversation)
                 .sender(sender)
+                .clientMessageId(clientMessageId)
                 .type(Message.MessageType.valueOf(request.getType()))
                 .content(request.getContent())
                 .mediaUrl(request.getMediaUrl())
@@ -62,56 +161,94 @@ public class ChatService {
             message.setDeliveredAt(LocalDateTime.now());
         }
 
-        messageRepository.save(message);
-
-        // Update conversation preview
         String preview = buildPreview(message);
-        conversation.setLastMessagePreview(preview);
-        conversation.setLastMessageAt(message.getCreatedAt());
-        conversationRepository.save(conversation);
+
+        // Write-behind needs the conversation row to be committed already,
+        // so the first message of a new chat is always written directly
+        CompletableFuture<String> written = null;
+        if (writeBehindQueue.isEnabled() && !created) {
+            message.setId(TimeOrderedIds.next());
+            message.setCreatedAt(LocalDateTime.now());
+            written = writeBehindQueue.enqueueAfterCommit(message, preview);
+        } else {
+            messageRepository.save(message);
+
+            // Update conversation preview + receiver's unread counter
+            conversationRepository.recordMessage(conversation.getId(),
+                    senderId, preview, message.getCreatedAt());
+        }
 
         // Build response: senderId = actual sender, receiverId = actual receiver
         MessageResponse messageResponse = MessageResponse.fromEntity(
                 message, receiver.getId()
         );
-
-        // Push to receiver in real-time via WebSocket
-        messagingTemplate.convertAndSendToUser(
-                receiver.getId(),
-                "/queue/messages",
-                messageResponse
-        );
-
-        // Also push to sender so their own chat screen updates in real-time
-        messagingTemplate.convertAndSendToUser(
-                sender.getId(),
-                "/queue/messages",
-                messageResponse
+        MessageSentEvent event = new MessageSentEvent(
+                messageResponse, sender, receiver,
+                conversation.getId(), preview
         );
 
-        // If receiver is OFFLINE → send push notification
-        if (!presenceService.isOnline(receiver.getId())) {
-            notificationService.sendMessageNotification(
-                    receiver.getId(),
-                    sender.getName(),
-                    preview,
-                    conversation.getId()
-            );
+        if (written == null) {
+            if (claimed) {
+                messageDedupService.completeAfterCommit(senderId, clientMessageId, messageResponse);
+            }
+            // Pushes, FCM and presence run after commit (MessageSentListener)
+            eventPublisher.publishEvent(event);
         }
+        return new Sent(new SendResult(messageResponse, false), written, event, claimed);
+    }
+
+    private record Sent(SendResult result,
+                        CompletableFuture<String> written,
+                        MessageSentEvent event,
+                        boolean claimed) {}
+
+    // ── Get All Conversations for a User ────────────────────────
+
+    public List<ConversationResponse> getMyConversations(String userId, int page, int size) {
+        List<ConversationResponse> cached = inboxService.getInbox(userId, page, size);
+        if (cached != null) return cached;
 
-        // Refresh sender presence
-        presenceService.refreshPresence(senderId);
+        // Single query — the other participant is joined, not lazy-loaded.
+        // The whole list is loaded, since the inbox is only ready when complete.
+        String version = inboxService.version(userId);
+        List<ConversationResponse> conversations =
+                conversationRepository.findSummariesByUserId(userId);
+        inboxService.rebuild(userId, version, conversations);
 
-        return messageResponse;
+        int from = (int) Math.min((long) page * size, conversations.size());
+        int to = (int) Math.min((long) from + size, conversations.size());
+        return conversations.subList(from, to);
     }
 
-    // ── Get All Conversations for a User ────────────────────────
+    // ── Get Conversations by Cursor (keyset) ────────────────────
 
-    public List<ConversationResponse> getMyConversations(String userId) {
-        return conversationRepository.findAllByUserId(userId)
-                .stream()
-                .map(conv -> buildConversationResponse(conv, userId))
-                .collect(Collectors.toList());
+    public ConversationCursorPage getMyConversationsByCursor(String userId,
+                                                             String before,
+                                                             int size) {
+        PageRequest limit = PageRequest.of(0, size);
+
+        Slice<ConversationResponse> slice;
+        if (before != null) {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            slice = conversationRepository.findSummariesBefore(
+                    userId, cursor.at(), cursor.id(), limit);
+        } else {
+            slice = conversationRepository.findLatestSummaries(userId, limit);
+        }
+
+        List<ConversationResponse> conversations = slice.getContent();
+
+        String nextCursor = null;
+        if (slice.hasNext() && !conversations.isEmpty()) {
+            ConversationResponse last = conversations.get(conversations.size() - 1);
+            nextCursor = new KeysetCursor(last.getLastMessageAt(), last.getId()).encode();
+        }
+
+        return ConversationCursorPage.builder()
+                .conversations(conversations)
+                .nextCursor(nextCursor)
+                .hasMore(slice.hasNext())
+                .build();
     }
 
     // ── Get Messages in a Conversation ──────────────────────────
@@ -122,14 +259,7 @@ public class ChatService {
                                              int page,
                                              int size) {
 
-        Conversation conversation = conversationRepository
-                .findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
-
-        // Determine the other user
-        String otherUserId = conversation.getUser1().getId().equals(userId)
-                ? conversation.getUser2().getId()
-                : conversation.getUser1().getId();
+        Conversation conversation = findConversation(conversationId);
 
         List<Message> messages = messageRepository
                 .findByConversationIdPaged(
@@ -137,61 +267,120 @@ public class ChatService {
                         PageRequest.of(page, size)
                 ).getContent();
 
-        // Mark all unread messages as READ
-        messages.stream()
-                .filter(m -> !m.getSender().getId().equals(userId)
-                        && m.getStatus() != Message.MessageStatus.READ)
-                .forEach(m -> {
-                    m.setStatus(Message.MessageStatus.READ);
-                    m.setReadAt(LocalDateTime.now());
-                    messageRepository.save(m);
-
-                    // Notify sender their message was read
-                    messagingTemplate.convertAndSendToUser(
-                            m.getSender().getId(),
-                            "/queue/message-status",
-                            new com.bokbok.meow.modules.chat.dto
-                                    .MessageStatusUpdate(
-                                    m.getId(),
-                                    conversationId,
-                                    "READ"
-                            )
-                    );
-                });
+        return markReadAndConvert(conversation, userId, messages);
+    }
 
-        return messages.stream()
-                .map(m -> {
-                    // receiverId is whoever is NOT the sender in this conversation
-                    String msgReceiverId = m.getSender().getId().equals(userId)
-                            ? otherUserId
-                            : userId;
-                    return MessageResponse.fromEntity(m, msgReceiverId);
-                })
-                .collect(Collectors.toList());
+    // ── Get Messages by Cursor (keyset) ─────────────────────────
+
+    @Transactional
+    public MessageCursorPage getMessagesByCursor(String conversationId,
+                                                 String userId,
+                                                 String before,
+                                                 String after,
+                                                 int size) {
+
+        if (before != null && after != null) {
+            throw new RuntimeException("Use either before or after, not both");
+        }
+
+        Conversation conversation = findConversation(conversationId);
+        PageRequest limit = PageRequest.of(0, size);
+
+        Slice<Message> slice;
+        if (after != null) {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            slice = messageRepository.findAfter(
+                    conversationId, cursor.at(), cursor.id(), limit);
+        } else if (before != null) {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            slice = messageRepository.findBefore(
+                    conversationId, cursor.at(), cursor.id(), limit);
+        } else {
+            slice = messageRepository.findLatest(conversationId, limit);
+        }
+
+        List<Message> messages = new ArrayList<>(slice.getContent());
+
+        // Next cursor continues in the direction the client is paging
+        String nextCursor = null;
+        if (slice.hasNext() && !messages.isEmpty()) {
+            Message last = messages.get(messages.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        // "after" pages are fetched oldest first; always return newest first
+        if (after != null) {
+            Collections.reverse(messages);
+        }
+
+        return MessageCursorPage.builder()
+                .messages(markReadAndConvert(conversation, userId, messages))
+                .nextCursor(nextCursor)
+                .hasMore(slice.hasNext())
+                .build();
     }
 
-    // ── Mark Messages as Delivered ──────────────────────────────
+    // ── Mark Conversation as Read ──────────────────────────────
 
     @Transactional
-    public void markDelivered(String userId) {
-        List<Message> undelivered = messageRepository
-                .findUndeliveredMessages(userId);
+    public void markRead(String conversationId,
+                         String userId,
+                         String upToMessageId) {
 
-        undelivered.forEach(m -> {
-            m.setStatus(Message.MessageStatus.DELIVERED);
-            m.setDeliveredAt(LocalDateTime.now());
-            messageRepository.save(m);
+        Conversation conversation = findConversation(conversationId);
 
+        String user1Id = conversation.getUser1().getId();
+        String user2Id = conversation.getUser2().getId();
+        if (!user1Id.equals(userId) && !user2Id.equals(userId)) {
+            throw new RuntimeException("Not a participant of this conversation");
+        }
+        String otherUserId = user1Id.equals(userId) ? user2Id : user1Id;
+
+        LocalDateTime upTo;
+        if (upToMessageId != null) {
+            Message message = messageRepository.findById(upToMessageId)
+                    .orElseThrow(() -> new RuntimeException("Message not found"));
+            if (!message.getConversation().getId().equals(conversationId)) {
+                throw new RuntimeException("Message is not in this conversation");
+            }
+            upTo = message.getCreatedAt();
+        } else {
+            upTo = conversation.getLastMessageAt();
+        }
+
+        if (upTo == null) return;  // nothing to read yet
+
+        advanceReadWatermark(conversationId, userId, otherUserId, upTo, upToMessageId);
+    }
+
+    // ── Mark Messages as Delivered ──────────────────────────────
+
+    @Transactional
+    public void markDelivered(String userId) {
+        List<MessageRepository.DeliveredMessage> delivered = messageRepository
+                .markDelivered(userId, LocalDateTime.now());
+
+        // One frame per (sender, conversation) instead of one per message
+        Map<List<String>, List<String>> grouped = delivered.stream()
+                .collect(Collectors.groupingBy(
+                        d -> List.of(d.getSenderId(), d.getConversationId()),
+                        LinkedHashMap::new,
+                        Collectors.mapping(
+                                MessageRepository.DeliveredMessage::getId,
+                                Collectors.toList()
+                        )
+                ));
+
+        grouped.forEach((key, messageIds) -> {
             // Notify sender
             messagingTemplate.convertAndSendToUser(
-                    m.getSender().getId(),
+                    key.get(0),
                     "/queue/message-status",
-                    new com.bokbok.meow.modules.chat.dto
-                            .MessageStatusUpdate(
-                            m.getId(),
-                            m.getConversation().getId(),
-                            "DELIVERED"
-                    )
+                    MessageStatusUpdate.builder()
+                            .messageIds(messageIds)
+                            .conversationId(key.get(1))
+                            .status("DELIVERED")
+                            .build()
             );
         });
     }
@@ -213,34 +402,115 @@ public class ChatService {
 
     // ── Private Helpers ─────────────────────────────────────────
 
-    private Conversation createConversation(User user1, User user2) {
+    // Redis window first; the DB row covers expired windows and Redis outages
+    private Optional<SendResult> replayOf(String senderId, SendMessageRequest request) {
+        return findReplay(senderId, request.getClientMessageId(), request.getReceiverId())
+                .map(original -> new SendResult(original, true));
+    }
+
+    private Optional<MessageResponse> findReplay(String senderId,
+                                                 String clientMessageId,
+                                                 String receiverId) {
+        return messageDedupService.findReplay(senderId, clientMessageId)
+                .or(() -> messageRepository
+                        .findBySenderAndClientMessageId(senderId, clientMessageId)
+                        .map(m -> MessageResponse.fromEntity(m, receiverId)));
+    }
+
+    private ConversationRef getOrCreateConversation(User user1, User user2) {
         // Always sort IDs to avoid duplicates
-        User first = user1.getId().compareTo(user2.getId()) < 0 ? user1 : user2;
-        User second = first == user1 ? user2 : user1;
+        String first = user1.getId().compareTo(user2.getId()) < 0
+                ? user1.getId() : user2.getId();
+        String second = first.equals(user1.getId()) ? user2.getId() : user1.getId();
+
+        List<ConversationRepository.PairLookup> result = conversationRepository
+                .getOrCreate(TimeOrderedIds.next(), first, second, LocalDateTime.now());
+        if (!result.isEmpty()) {
+            return new ConversationRef(result.get(0).getId(),
+                    Boolean.TRUE.equals(result.get(0).getCreated()));
+        }
 
-        Conversation conv = Conversation.builder()
-                .user1(first)
-                .user2(second)
-                .build();
-        return conversationRepository.save(conv);
+        // Lost the insert race to a transaction that committed mid-statement
+        String id = conversationRepository.findIdByPair(first, second)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        return new ConversationRef(id, false);
     }
 
-    private ConversationResponse buildConversationResponse(
-            Conversation conv, String userId) {
-
-        User other = conv.getUser1().getId().equals(userId)
-                ? conv.getUser2()
-                : conv.getUser1();
-
-        return ConversationResponse.builder()
-                .id(conv.getId())
-                .otherUserId(other.getId())
-                .otherUserName(other.getName())
-                .otherUserAvatarUrl(other.getAvatarUrl())
-                .otherUserStatus(other.getStatus().name())
-                .lastMessagePreview(conv.getLastMessagePreview())
-                .lastMessageAt(conv.getLastMessageAt())
-                .build();
+    private record ConversationRef(String id, boolean created) {}
+
+    private List<MessageResponse> markReadAndConvert(Conversation conversation,
+                                                     String userId,
+                                                     List<Message> messages) {
+
+        // Determine the other user
+        String otherUserId = conversation.getUser1().getId().equals(userId)
+                ? conversation.getUser2().getId()
+                : conversation.getUser1().getId();
+
+        // Opening the chat reads up to the newest incoming message on this
+        // page — one watermark update instead of one UPDATE per message
+        LocalDateTime myReadUpTo = readUpToOf(conversation, userId);
+        LocalDateTime newestIncoming = messages.stream()
+                .filter(m -> !m.getSender().getId().equals(userId))
+                .map(Message::getCreatedAt)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+
+        if (newestIncoming != null
+                && (myReadUpTo == null || newestIncoming.isAfter(myReadUpTo))
+                && advanceReadWatermark(conversation.getId(), userId,
+                        otherUserId, newestIncoming, null)) {
+            myReadUpTo = newestIncoming;
+        }
+
+        LocalDateTime otherReadUpTo = readUpToOf(conversation, otherUserId);
+        LocalDateTime finalMyReadUpTo = myReadUpTo;
+
+        return messages.stream()
+                .map(m -> {
+                    // receiverId is whoever is NOT the sender in this conversation
+                    boolean mine = m.getSender().getId().equals(userId);
+                    return MessageResponse.fromEntity(
+                            m,
+                            mine ? otherUserId : userId,
+                            mine ? otherReadUpTo : finalMyReadUpTo
+                    );
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Returns true if the watermark moved; the other participant then gets
+    // a single status frame covering every message up to upTo
+    private boolean advanceReadWatermark(String conversationId,
+                                         String userId,
+                                         String otherUserId,
+                                         LocalDateTime upTo,
+                                         String upToMessageId) {
+        int updated = conversationRepository
+                .advanceReadWatermark(conversationId, userId, upTo);
+        if (updated == 0) return false;
+
+        inboxService.setUnreadCount(conversationId, userId,
+                conversationRepository.findUnreadCount(conversationId, userId));
+
+        messagingTemplate.convertAndSendToUser(
+                otherUserId,
+                "/queue/message-status",
+                MessageStatusUpdate.builder()
+                        .messageId(upToMessageId)
+                        .conversationId(conversationId)
+                        .status("READ")
+                        .readerId(userId)
+                        .readUpTo(upTo)
+                        .build()
+        );
+        return true;
+    }
+
+    private LocalDateTime readUpToOf(Conversation conversation, String userId) {
+        return conversation.getUser1().getId().equals(userId)
+                ? conversation.getUser1ReadUpTo()
+                : conversation.getUser2ReadUpTo();
     }
 
     private String buildPreview(Message message) {
@@ -256,6 +526,11 @@ public class ChatService {
         };
     }
 
+    private Conversation findConversation(String conversationId) {
+        return conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+    }
+
     private User findUser(String userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
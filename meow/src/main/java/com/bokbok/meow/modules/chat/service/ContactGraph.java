@@ -0,0 +1,120 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.repository.ConversationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Who should hear about a user's presence: their conversation partners.
+// contacts:{userId} is a Redis SET loaded from Postgres on first use; an
+// empty-string member marks a user with no conversations yet, so a
+// missing key always means "not loaded".
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContactGraph {
+
+    private static final String CONTACTS_KEY = "contacts:";
+    private static final String NO_CONTACTS = "";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConversationRepository conversationRepository;
+
+    @Value("${chat.contacts.ttl-hours:24}")
+    private long ttlHours;
+
+    // One pipelined SMEMBERS for all users, then DB loads for the misses
+    @SuppressWarnings("unchecked")
+    public Map<String, Set<String>> contactsOf(Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(userIds);
+        Map<String, Set<String>> contacts = new HashMap<>();
+        if (ids.isEmpty()) return contacts;
+
+        List<Object> members;
+        try {
+            members = redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                        ids.forEach(id -> conn.sMembers(CONTACTS_KEY + id));
+                        return null;
+                    });
+        } catch (DataAccessException e) {
+            log.warn("Contact lookup failed, loading from DB: {}", e.getMessage());
+            ids.forEach(id -> contacts.put(id,
+                    new HashSet<>(conversationRepository.findPartnerIds(id))));
+            return contacts;
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            Set<String> cached = (Set<String>) members.get(i);
+            if (cached == null || cached.isEmpty()) {
+                contacts.put(ids.get(i), load(ids.get(i)));
+            } else {
+                Set<String> partners = new HashSet<>(cached);
+                partners.remove(NO_CONTACTS);
+                contacts.put(ids.get(i), partners);
+            }
+        }
+        return contacts;
+    }
+
+    // A new conversation changes both adjacency sets — drop them once the
+    // row is committed and let the next lookup reload
+    public void invalidateAfterCommit(String userId1, String userId2) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId1, userId2);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        invalidate(userId1, userId2);
+                    }
+                });
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private Set<String> load(String userId) {
+        Set<String> partners = new HashSet<>(conversationRepository.findPartnerIds(userId));
+        try {
+            String key = CONTACTS_KEY + userId;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                conn.sAdd(key, partners.isEmpty()
+                        ? new String[]{NO_CONTACTS}
+                        : partners.toArray(String[]::new));
+                conn.expire(key, ttlHours * 3600);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Contact cache write failed for {}: {}", userId, e.getMessage());
+        }
+        return partners;
+    }
+
+    private void invalidate(String userId1, String userId2) {
+        try {
+            redisTemplate.delete(List.of(CONTACTS_KEY + userId1, CONTACTS_KEY + userId2));
+        } catch (DataAccessException e) {
+            log.warn("Contact invalidation failed: {}", e.getMessage());
+        }
+    }
+}
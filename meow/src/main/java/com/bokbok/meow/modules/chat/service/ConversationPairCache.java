@@ -0,0 +1,63 @@
+package com.bokbok.meow.modules.chat.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Node-local map from a canonical (sorted) user pair to its conversation ID.
+// Conversations are never deleted, so entries never go stale; the bound
+// only keeps memory flat for large user bases.
+@Component
+public class ConversationPairCache {
+
+    private final Map<String, String> cache;
+
+    public ConversationPairCache(
+            @Value("${chat.conversation-cache.max-size:100000}") int maxSize) {
+        // Access-ordered LinkedHashMap = simple LRU
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public String get(String userId1, String userId2) {
+        synchronized (cache) {
+            return cache.get(key(userId1, userId2));
+        }
+    }
+
+    // Only cache once the row is committed — a rolled back insert must
+    // not leave an ID that points nowhere
+    public void putAfterCommit(String userId1, String userId2, String conversationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(userId1, userId2, conversationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(userId1, userId2, conversationId);
+                    }
+                });
+    }
+
+    private void put(String userId1, String userId2, String conversationId) {
+        synchronized (cache) {
+            cache.put(key(userId1, userId2), conversationId);
+        }
+    }
+
+    private String key(String userId1, String userId2) {
+        return userId1.compareTo(userId2) < 0
+                ? userId1 + ":" + userId2
+                : userId2 + ":" + userId1;
+    }
+}
@@ -0,0 +1,377 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.dto.ConversationResponse;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.websocket.PresenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-user chat list materialized in Redis:
+//   inbox:{userId}        ZSET  conversationId → last message time
+//   inbox:conv:{id}       HASH  participants, preview, unread:{userId} counts,
+//                               counted:{userId} — last message time in the count
+//   inbox:user:{userId}   HASH  name / avatar shown to the other side
+//   inbox:ready:{userId}  marker — the ZSET is complete for this user
+//   inbox:ver:{userId}    bumped by every write that touches the user's rows
+// Reads cost three pipelined round trips and no DB queries. Writes are Lua
+// scripts: a send never moves a chat back to an older message, and a
+// rebuild from a DB snapshot is dropped if the version moved while it was
+// being loaded.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InboxService {
+
+    private static final String INBOX_KEY = "inbox:";
+    private static final String READY_KEY = "inbox:ready:";
+    private static final String CONVERSATION_KEY = "inbox:conv:";
+    private static final String USER_CARD_KEY = "inbox:user:";
+    private static final String VERSION_KEY = "inbox:ver:";
+    private static final String UNREAD_FIELD = "unread:";
+
+    private static final String COUNTED_FIELD = "counted:";
+
+    // KEYS: version, inbox, ready, then per conversation: conv hash, other user's card
+    // ARGV: expected version, ttl seconds, own unread field, own counted field,
+    //       then per conversation: id, score ('' when no message yet),
+    //       user1Id, user2Id, preview, lastMessageAt, unread,
+    //       other user's name, other user's avatar
+    // Returns 1 when written, 0 when a concurrent write made the snapshot stale
+    private static final RedisScript<Long> REBUILD = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then return 0 end
+            redis.call('DEL', KEYS[2])
+            for i = 0, (#KEYS - 3) / 2 - 1 do
+              local conv, card, a = KEYS[4 + i * 2], KEYS[5 + i * 2], 5 + i * 9
+              if ARGV[a + 1] ~= '' then
+                redis.call('ZADD', KEYS[2], ARGV[a + 1], ARGV[a])
+              end
+              redis.call('HSET', conv, 'user1Id', ARGV[a + 2], 'user2Id', ARGV[a + 3],
+                  'preview', ARGV[a + 4], 'lastMessageAt', ARGV[a + 5],
+                  'lastMessageMs', ARGV[a + 1], ARGV[3], ARGV[a + 6], ARGV[4], ARGV[a + 1])
+              redis.call('EXPIRE', conv, ARGV[2])
+              redis.call('HSET', card, 'name', ARGV[a + 7], 'avatarUrl', ARGV[a + 8])
+              redis.call('EXPIRE', card, ARGV[2])
+            end
+            redis.call('EXPIRE', KEYS[2], ARGV[2])
+            redis.call('SET', KEYS[3], '1', 'EX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS: conv hash, then for sender and receiver in turn: inbox, card, version, ready
+    // ARGV: score, user1Id, user2Id, preview, lastMessageAt, receiver's unread field,
+    //       receiver's counted field, ttl seconds, conversationId,
+    //       sender name, sender avatar, receiver name, receiver avatar
+    // The preview only moves forward in time, and a message at or before the
+    // receiver's last rebuild is already in their unread count
+    private static final RedisScript<Long> ON_MESSAGE = new DefaultRedisScript<>("""
+            local score = tonumber(ARGV[1])
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              -- Unread counts are gone with the hash; rebuild both from DB
+              redis.call('DEL', KEYS[5], KEYS[9])
+            end
+            local last = tonumber(redis.call('HGET', KEYS[1], 'lastMessageMs') or '')
+            if not last or last < score then
+              redis.call('HSET', KEYS[1], 'user1Id', ARGV[2], 'user2Id', ARGV[3],
+                  'preview', ARGV[4], 'lastMessageAt', ARGV[5], 'lastMessageMs', ARGV[1])
+            end
+            local counted = tonumber(redis.call('HGET', KEYS[1], ARGV[7]) or '')
+            if not counted or counted < score then
+              redis.call('HINCRBY', KEYS[1], ARGV[6], 1)
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[8])
+            for i = 0, 1 do
+              local inbox, card, ver, n = KEYS[2 + i * 4], KEYS[3 + i * 4], KEYS[4 + i * 4], 10 + i * 2
+              local current = redis.call('ZSCORE', inbox, ARGV[9])
+              if not current or tonumber(current) < score then
+                redis.call('ZADD', inbox, score, ARGV[9])
+              end
+              redis.call('EXPIRE', inbox, ARGV[8])
+              redis.call('HSET', card, 'name', ARGV[n], 'avatarUrl', ARGV[n + 1])
+              redis.call('EXPIRE', card, ARGV[8])
+              redis.call('INCR', ver)
+              redis.call('EXPIRE', ver, ARGV[8])
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PresenceService presenceService;
+
+    @Value("${chat.inbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.inbox.ttl-hours:72}")
+    private long ttlHours;
+
+    // Users whose ready marker must go but whose caller cannot wait for
+    // Redis; read as missing here at once, deleted by flushInvalidations
+    private final Set<String> pendingInvalidations = ConcurrentHashMap.newKeySet();
+
+    // ── Read ────────────────────────────────────────────────────
+
+    // One page, most recent first. Returns null when the inbox is not
+    // materialized — caller rebuilds.
+    @SuppressWarnings("unchecked")
+    public List<ConversationResponse> getInbox(String userId, int page, int size) {
+        if (!enabled || pendingInvalidations.contains(userId)) return null;
+        try {
+            List<Object> head = redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                        conn.exists(READY_KEY + userId);
+                        long start = (long) page * size;
+                        conn.zRevRange(INBOX_KEY + userId, start, start + size - 1);
+                        return null;
+                    });
+
+            if (!Boolean.TRUE.equals(head.get(0))) return null;
+            List<String> conversationIds = new ArrayList<>((Set<String>) head.get(1));
+            if (conversationIds.isEmpty()) return List.of();
+
+            List<Object> conversations = redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                        conversationIds.forEach(id -> conn.hGetAll(CONVERSATION_KEY + id));
+                        return null;
+                    });
+
+            List<String> otherUserIds = new ArrayList<>(conversationIds.size());
+            for (Object entry : conversations) {
+                Map<String, String> conv = (Map<String, String>) entry;
+                // Evicted or partially written — rebuild
+                if (conv == null || conv.get("user1Id") == null
+                        || conv.get(UNREAD_FIELD + userId) == null) return null;
+                otherUserIds.add(userId.equals(conv.get("user1Id"))
+                        ? conv.get("user2Id")
+                        : conv.get("user1Id"));
+            }
+
+            List<Object> cards = redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                        otherUserIds.forEach(id -> conn.hGetAll(USER_CARD_KEY + id));
+                        return null;
+                    });
+            Map<String, Boolean> online = presenceService.areOnline(otherUserIds);
+
+            List<ConversationResponse> result = new ArrayList<>(conversationIds.size());
+            for (int i = 0; i < conversationIds.size(); i++) {
+                Map<String, String> conv = (Map<String, String>) conversations.get(i);
+                Map<String, String> card = (Map<String, String>) cards.get(i);
+                if (card == null || card.isEmpty()) return null;  // profile changed — rebuild
+
+                String otherUserId = otherUserIds.get(i);
+                result.add(ConversationResponse.builder()
+                        .id(conversationIds.get(i))
+                        .otherUserId(otherUserId)
+                        .otherUserName(card.get("name"))
+                        .otherUserAvatarUrl(emptyToNull(card.get("avatarUrl")))
+                        .otherUserStatus(Boolean.TRUE.equals(online.get(otherUserId))
+                                ? User.UserStatus.ONLINE.name()
+                                : User.UserStatus.OFFLINE.name())
+                        .lastMessagePreview(emptyToNull(conv.get("preview")))
+                        .lastMessageAt(parseTime(conv.get("lastMessageAt")))
+                        .unreadCount(Integer.parseInt(conv.get(UNREAD_FIELD + userId)))
+                        .build());
+            }
+            return result;
+        } catch (DataAccessException e) {
+            log.warn("Inbox read failed for {}, falling back to DB: {}",
+                    userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // ── Write ───────────────────────────────────────────────────
+
+    // Read before loading the rows a rebuild is made from
+    public String version(String userId) {
+        if (!enabled) return null;
+        try {
+            String version = redisTemplate.opsForValue().get(VERSION_KEY + userId);
+            return version != null ? version : "0";
+        } catch (DataAccessException e) {
+            log.warn("Inbox version read failed for {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // Replaces the user's inbox with rows loaded from Postgres, unless the
+    // inbox was written to since version was read — the rows may then be
+    // older than Redis, and the next read rebuilds again
+    public void rebuild(String userId, String version, List<ConversationResponse> conversations) {
+        if (!enabled || version == null) return;
+        String ttlSeconds = String.valueOf(ttlHours * 3600);
+
+        List<String> keys = new ArrayList<>(3 + conversations.size() * 2);
+        keys.add(VERSION_KEY + userId);
+        keys.add(INBOX_KEY + userId);
+        keys.add(READY_KEY + userId);
+        List<String> args = new ArrayList<>(4 + conversations.size() * 9);
+        args.add(version);
+        args.add(ttlSeconds);
+        args.add(UNREAD_FIELD + userId);
+        args.add(COUNTED_FIELD + userId);
+        for (ConversationResponse c : conversations) {
+            keys.add(CONVERSATION_KEY + c.getId());
+            keys.add(USER_CARD_KEY + c.getOtherUserId());
+
+            // Participants are stored in canonical (sorted) order
+            boolean meFirst = userId.compareTo(c.getOtherUserId()) < 0;
+            args.add(c.getId());
+            args.add(c.getLastMessageAt() != null ? toScore(c.getLastMessageAt()) : "");
+            args.add(meFirst ? userId : c.getOtherUserId());
+            args.add(meFirst ? c.getOtherUserId() : userId);
+            args.add(nullToEmpty(c.getLastMessagePreview()));
+            args.add(c.getLastMessageAt() != null ? c.getLastMessageAt().toString() : "");
+            args.add(String.valueOf(c.getUnreadCount()));
+            args.add(nullToEmpty(c.getOtherUserName()));
+            args.add(nullToEmpty(c.getOtherUserAvatarUrl()));
+        }
+
+        try {
+            Long written = redisTemplate.execute(REBUILD, keys, args.toArray());
+            if (!Long.valueOf(1).equals(written)) {
+                log.debug("Inbox rebuild for {} skipped, written to meanwhile", userId);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Inbox rebuild failed for {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Called on every send — one script for both participants
+    public void onMessage(String conversationId,
+                          User sender,
+                          User receiver,
+                          String preview,
+                          LocalDateTime lastMessageAt) {
+        if (!enabled) return;
+        boolean senderFirst = sender.getId().compareTo(receiver.getId()) < 0;
+        List<String> keys = new ArrayList<>(9);
+        keys.add(CONVERSATION_KEY + conversationId);
+        for (User user : List.of(sender, receiver)) {
+            keys.add(INBOX_KEY + user.getId());
+            keys.add(USER_CARD_KEY + user.getId());
+            keys.add(VERSION_KEY + user.getId());
+            keys.add(READY_KEY + user.getId());
+        }
+        try {
+            redisTemplate.execute(ON_MESSAGE, keys,
+                    toScore(lastMessageAt),
+                    senderFirst ? sender.getId() : receiver.getId(),
+                    senderFirst ? receiver.getId() : sender.getId(),
+                    nullToEmpty(preview),
+                    lastMessageAt.toString(),
+                    UNREAD_FIELD + receiver.getId(),
+                    COUNTED_FIELD + receiver.getId(),
+                    String.valueOf(ttlHours * 3600),
+                    conversationId,
+                    nullToEmpty(sender.getName()),
+                    nullToEmpty(sender.getAvatarUrl()),
+                    nullToEmpty(receiver.getName()),
+                    nullToEmpty(receiver.getAvatarUrl()));
+        } catch (DataAccessException e) {
+            // Drop the materialized inboxes so the next read rebuilds from DB
+            log.warn("Inbox update failed for {}: {}", conversationId, e.getMessage());
+            invalidate(sender.getId(), receiver.getId());
+        }
+    }
+
+    // Mirrors the recount done when a read watermark moves
+    public void setUnreadCount(String conversationId, String userId, int count) {
+        if (!enabled) return;
+        long ttlSeconds = ttlHours * 3600;
+        try {
+            // Version first: a rebuild that runs after it is dropped, one
+            // that ran before it is overwritten by the fresh count
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                conn.incr(VERSION_KEY + userId);
+                conn.expire(VERSION_KEY + userId, ttlSeconds);
+                conn.hSet(CONVERSATION_KEY + conversationId,
+                        UNREAD_FIELD + userId, String.valueOf(count));
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Inbox unread update failed for {}: {}", userId, e.getMessage());
+            invalidate(userId);
+        }
+    }
+
+    // Name / avatar changed — readers fall back to a rebuild
+    public void evictUserCard(String userId) {
+        if (!enabled) return;
+        try {
+            redisTemplate.delete(USER_CARD_KEY + userId);
+        } catch (DataAccessException e) {
+            log.warn("Inbox card eviction failed for {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Non-blocking invalidate, for callers that must not touch Redis
+    public void invalidateLater(String... userIds) {
+        if (!enabled) return;
+        Collections.addAll(pendingInvalidations, userIds);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.inbox.invalidate-ms:500}")
+    public void flushInvalidations() {
+        if (pendingInvalidations.isEmpty()) return;
+        List<String> userIds = new ArrayList<>(pendingInvalidations);
+        try {
+            redisTemplate.delete(userIds.stream().map(id -> READY_KEY + id).toList());
+            userIds.forEach(pendingInvalidations::remove);
+        } catch (DataAccessException e) {
+            // Kept pending, so this node still reads them as missing
+            log.warn("Inbox invalidation failed for {} users: {}",
+                    userIds.size(), e.getMessage());
+        }
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private void invalidate(String... userIds) {
+        try {
+            for (String userId : userIds) {
+                redisTemplate.delete(READY_KEY + userId);
+            }
+        } catch (DataAccessException ignored) {
+            // Redis is down; the marker TTL bounds how stale an inbox can get
+        }
+    }
+
+    private String toScore(LocalDateTime time) {
+        return String.valueOf(time.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    private LocalDateTime parseTime(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    private String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,121 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Retry window for client message IDs. The first send claims
+// msg:dedup:{senderId}:{clientMessageId}; after commit the key holds the
+// MessageResponse JSON so replays get the original back without a DB hit.
+// The unique (sender_id, client_message_id) constraint is the backstop
+// when Redis is unavailable or the window has expired.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageDedupService {
+
+    private static final String DEDUP_KEY = "msg:dedup:";
+    private static final String PENDING = "PENDING";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JsonMapper jsonMapper;
+
+    @Value("${chat.dedup.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    // Short, so a send that died mid-flight does not block its retries
+    @Value("${chat.dedup.pending-ttl-seconds:30}")
+    private long pendingTtlSeconds;
+
+    public enum Claim { CLAIMED, IN_FLIGHT, UNKNOWN }
+
+    // CLAIMED   — this request owns the ID and should send
+    // IN_FLIGHT — another attempt holds it; a replay may be available
+    // UNKNOWN   — Redis unavailable, caller must check the DB
+    public Claim claim(String senderId, String clientMessageId) {
+        String key = key(senderId, clientMessageId);
+        try {
+            Boolean claimed = redisTemplate.opsForValue().setIfAbsent(
+                    key, PENDING, Duration.ofSeconds(pendingTtlSeconds));
+            if (!Boolean.TRUE.equals(claimed)) return Claim.IN_FLIGHT;
+        } catch (DataAccessException e) {
+            log.warn("Dedup claim failed for {}: {}", senderId, e.getMessage());
+            return Claim.UNKNOWN;
+        }
+
+        // Free the ID for a retry if the send rolls back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) delete(key);
+                        }
+                    });
+        }
+        return Claim.CLAIMED;
+    }
+
+    // Original response of a completed send, if it is still in the window
+    public Optional<MessageResponse> findReplay(String senderId, String clientMessageId) {
+        try {
+            String value = redisTemplate.opsForValue()
+                    .get(key(senderId, clientMessageId));
+            if (value == null || PENDING.equals(value)) return Optional.empty();
+            return Optional.of(jsonMapper.readValue(value, MessageResponse.class));
+        } catch (DataAccessException | JacksonException e) {
+            log.warn("Dedup replay lookup failed for {}: {}", senderId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Stores the response for replays once the send commits
+    public void completeAfterCommit(String senderId,
+                                    String clientMessageId,
+                                    MessageResponse response) {
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        complete(senderId, clientMessageId, response);
+                    }
+                });
+    }
+
+    // Stores the response for replays now — the write is already durable
+    public void complete(String senderId,
+                         String clientMessageId,
+                         MessageResponse response) {
+        try {
+            redisTemplate.opsForValue().set(key(senderId, clientMessageId),
+                    jsonMapper.writeValueAsString(response),
+                    Duration.ofMinutes(ttlMinutes));
+        } catch (DataAccessException | JacksonException e) {
+            log.warn("Dedup completion failed for {}: {}",
+                    senderId, e.getMessage());
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            log.warn("Dedup release failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private String key(String senderId, String clientMessageId) {
+        return DEDUP_KEY + senderId + ":" + clientMessageId;
+    }
+}
@@ -0,0 +1,89 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.config.AsyncConfig;
+import com.bokbok.meow.modules.chat.event.MessageSentEvent;
+import com.bokbok.meow.modules.chat.repository.ConversationRepository;
+import com.bokbok.meow.modules.notification.service.NotificationService;
+import com.bokbok.meow.websocket.PresenceService;
+import com.bokbok.meow.websocket.UserMessageSender;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Everything sendMessage does besides the insert: runs after commit on
+// the side-effect pool, so clients never see a message that rolled back
+@Component
+@RequiredArgsConstructor
+public class MessageSentListener {
+
+    private final UserMessageSender userMessageSender;
+    private final NotificationService notificationService;
+    private final PresenceService presenceService;
+    private final InboxService inboxService;
+    private final ConversationRepository conversationRepository;
+    @Qualifier(AsyncConfig.SIDE_EFFECT_EXECUTOR)
+    private final Executor sideEffectExecutor;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT,
+            fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        sideEffectExecutor.execute(new Dispatch(event));
+    }
+
+    // When the pool is saturated the inbox update is swapped for a cheap
+    // invalidation — the next read rebuilds both chat lists from DB — and
+    // only the pushes and FCM wait on the overflow thread
+    private final class Dispatch implements AsyncConfig.DegradableTask {
+
+        private final MessageSentEvent event;
+
+        private Dispatch(MessageSentEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            // Keep both participants' materialized chat lists current
+            inboxService.onMessage(event.conversationId(), event.sender(),
+                    event.receiver(), event.preview(), event.message().getCreatedAt());
+            deliver(event);
+        }
+
+        @Override
+        public Runnable degrade() {
+            inboxService.invalidateLater(event.sender().getId(), event.receiver().getId());
+            return () -> deliver(event);
+        }
+    }
+
+    private void deliver(MessageSentEvent event) {
+        String senderId = event.sender().getId();
+        String receiverId = event.receiver().getId();
+
+        // Push to receiver in real-time, and to the sender so their own
+        // chat screen updates too — serialized once for both
+        userMessageSender.sendToUsers(
+                List.of(receiverId, senderId),
+                "/queue/messages",
+                event.message()
+        );
+
+        // If receiver is OFFLINE → send push notification
+        if (!presenceService.isOnline(receiverId)) {
+            // Queued messages are already counted — the event follows the flush
+            long badge = conversationRepository.sumUnreadByUserId(receiverId);
+            notificationService.sendMessageNotification(
+                    receiverId,
+                    event.sender().getName(),
+                    event.preview(),
+                    event.conversationId(),
+                    (int) badge
+            );
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.entity.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Optional ingest mode for sendMessage: messages are queued in memory and
+// written by a single flusher thread using JDBC batch inserts, with one
+// preview and unread-counter update per conversation per flush.
+//
+// A queued message only exists in this JVM until its batch commits, so
+// nothing is acknowledged before then: enqueueAfterCommit returns a future
+// that completes with the stored message ID, and ChatService chains the
+// sender's ack, the pushes and FCM onto it. A crash can only lose
+// sends the client never saw succeed and will retry with the same
+// clientMessageId.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageWriteBehindQueue {
+
+    // A retried send that slipped past the Redis dedup window hits
+    // uk_messages_sender_client_id and is skipped; a batch retried after
+    // an ambiguous commit hits the primary key and is skipped as well
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO messages (id, conversation_id, sender_id, client_message_id, " +
+            "type, content, media_url, media_duration, status, delivered_at, " +
+            "is_deleted, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    // The row a skipped insert collided with
+    private static final String FIND_EXISTING =
+            "SELECT id FROM messages WHERE sender_id = ? AND client_message_id = ?";
+
+    // Never move the preview backwards if an older batch lands late
+    private static final String UPDATE_PREVIEW =
+            "UPDATE conversations SET last_message_preview = ?, last_message_at = ? " +
+            "WHERE id = ? AND (last_message_at IS NULL OR last_message_at <= ?)";
+
+    // Receiver is whichever participant did not send. Only messages newer
+    // than the receiver's read watermark count: a chat opened while the
+    // batch was queued has already recounted past them
+    private static final String INCREMENT_UNREAD =
+            "UPDATE conversations SET " +
+            "user1_unread_count = user1_unread_count + CASE WHEN user1_id = ? THEN 0 ELSE " +
+            "(SELECT count(*) FROM unnest(?::timestamp[]) AS t(at) " +
+            "WHERE user1_read_up_to IS NULL OR t.at > user1_read_up_to) END, " +
+            "user2_unread_count = user2_unread_count + CASE WHEN user2_id = ? THEN 0 ELSE " +
+            "(SELECT count(*) FROM unnest(?::timestamp[]) AS t(at) " +
+            "WHERE user2_read_up_to IS NULL OR t.at > user2_read_up_to) END " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.write-behind.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${chat.write-behind.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    // Longest a sender waits for its batch before being told to retry
+    @Value("${chat.write-behind.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @Value("${chat.write-behind.retry-initial-ms:100}")
+    private long retryInitialMs;
+
+    @Value("${chat.write-behind.retry-max-ms:5000}")
+    private long retryMaxMs;
+
+    // How long shutdown keeps writing (and retrying) what is still queued
+    @Value("${chat.write-behind.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<PendingMessage> queue;
+    // Bounds queued + in-flight messages; taken before commit, returned
+    // once the message is written, dead-lettered or rolled back
+    private Semaphore capacity;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+    private volatile long drainDeadline = Long.MAX_VALUE;
+
+    private Timer flushTimer;
+    private DistributionSummary flushSize;
+    private Counter flushRetries;
+    private Counter deadLettered;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+
+        queue = new LinkedBlockingQueue<>();
+        capacity = new Semaphore(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("chat.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Messages waiting to be flushed")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("chat.ingest.flush.latency")
+                .description("Time to write one batch")
+                .register(meterRegistry);
+        flushSize = DistributionSummary.builder("chat.ingest.flush.size")
+                .description("Messages written per flush")
+                .register(meterRegistry);
+        flushRetries = Counter.builder("chat.ingest.flush.retries")
+                .description("Batches retried after a transient write failure")
+                .register(meterRegistry);
+        deadLettered = Counter.builder("chat.ingest.flush.failures")
+                .description("Messages rejected by a constraint and not retried")
+                .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Message write-behind enabled (batch={}, linger={}ms)",
+                batchSize, lingerMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) return;
+        // New sends are refused; the flusher keeps draining until the
+        // queue is empty or the deadline passes
+        drainDeadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        running = false;
+        flusher.join(shutdownTimeoutMs + retryMaxMs);
+
+        List<PendingMessage> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.error("{} queued messages were not written before shutdown", left.size());
+            fail(left, new IllegalStateException("Shut down before the message was written"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Reserves queue space now, so a full queue fails the send before it
+    // commits; the message is only handed to the flusher after commit and
+    // is dropped if the transaction rolls back. The future completes with
+    // the ID the message is stored under — the existing row's ID if it
+    // turned out to be a retried duplicate.
+    public CompletableFuture<String> enqueueAfterCommit(Message message, String preview) {
+        PendingMessage pending = new PendingMessage(
+                message.getId(),
+                message.getConversation().getId(),
+                message.getSender().getId(),
+                message.getClientMessageId(),
+                message.getType().name(),
+                message.getContent(),
+                message.getMediaUrl(),
+                message.getMediaDuration(),
+                message.getStatus().name(),
+                message.getDeliveredAt(),
+                message.getCreatedAt(),
+                preview,
+                new CompletableFuture<>()
+        );
+        reserve();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queue.add(pending);
+            return pending.written();
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        queue.add(pending);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            capacity.release();
+                            pending.written().cancel(false);
+                        }
+                    }
+                });
+        return pending.written();
+    }
+
+    // The flusher's verdict as the sender's ack, failed if it does not come
+    // in time. Nothing waits on it: a batch grows with the send rate, not
+    // with the number of threads parked until it commits.
+    public CompletableFuture<String> ack(CompletableFuture<String> written) {
+        return written.copy()
+                .orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null
+                            ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        throw new RuntimeException("Message is still being saved, please retry");
+                    }
+                    throw new RuntimeException("Message could not be saved");
+                });
+    }
+
+    private void reserve() {
+        try {
+            if (!running || !capacity.tryAcquire(enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Message queue is full, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Message send interrupted");
+        }
+    }
+
+    // ── Flusher ─────────────────────────────────────────────────
+
+    private void runFlusher() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+
+        while (running || (!queue.isEmpty() && System.nanoTime() < drainDeadline)) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Wait up to linger-ms for the batch to fill
+                long deadline = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                // Stop accepting, but still write what was already taken
+                running = false;
+                if (!batch.isEmpty()) write(batch);
+            } catch (Exception e) {
+                log.error("Write-behind flush loop error: {}", e.getMessage());
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Transient failures (connection loss, timeouts, deadlocks) retry the
+    // whole batch with backoff. A constraint violation will not go away on
+    // retry, so the batch is split until the offending row is isolated and
+    // only that row is dead-lettered.
+    private void write(List<PendingMessage> batch) {
+        long backoff = retryInitialMs;
+        while (true) {
+            try {
+                List<String> ids = flush(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).written().complete(ids.get(i));
+                }
+                capacity.release(batch.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() == 1) {
+                    deadLetter(batch.get(0), e);
+                    return;
+                }
+                log.warn("Batch of {} messages hit a constraint, writing one by one: {}",
+                        batch.size(), e.getMessage());
+                for (PendingMessage m : batch) write(List.of(m));
+                return;
+            } catch (Exception e) {
+                long remaining = drainDeadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.error("Giving up on {} messages at shutdown: {}",
+                            batch.size(), e.getMessage());
+                    fail(batch, e);
+                    return;
+                }
+                flushRetries.increment();
+                log.warn("Batch of {} messages failed, retrying in {}ms: {}",
+                        batch.size(), backoff, e.getMessage());
+                try {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(
+                            TimeUnit.MILLISECONDS.toNanos(backoff), remaining));
+                } catch (InterruptedException ie) {
+                    // Shutting down — the deadline now bounds the retries
+                    running = false;
+                }
+                backoff = Math.min(backoff * 2, retryMaxMs);
+            }
+        }
+    }
+
+    // One transaction per batch; returns the stored ID for each message
+    private List<String> flush(List<PendingMessage> batch) {
+        flushSize.record(batch.size());
+        return flushTimer.record(() -> transactionTemplate.execute(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_MESSAGE, batch,
+                    batch.size(), (ps, m) -> bindInsert(ps, m));
+
+            // Skipped duplicates must not bump previews or counters
+            List<PendingMessage> inserted = new ArrayList<>(batch.size());
+            List<String> ids = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                PendingMessage m = batch.get(i);
+                if (counts[0][i] != 0) {
+                    inserted.add(m);
+                    ids.add(m.id());
+                } else {
+                    ids.add(existingId(m));
+                }
+            }
+            updateConversations(inserted);
+            return ids;
+        }));
+    }
+
+    private String existingId(PendingMessage m) {
+        // No client ID → only our own row (from an ambiguous commit) can clash
+        if (m.clientMessageId() == null) return m.id();
+        return jdbcTemplate.query(FIND_EXISTING, rs -> rs.next() ? rs.getString(1) : m.id(),
+                m.senderId(), m.clientMessageId());
+    }
+
+    private void deadLetter(PendingMessage m, Exception e) {
+        deadLettered.increment();
+        log.error("Dead-lettering message {} (conversation {}, sender {}): {}",
+                m.id(), m.conversationId(), m.senderId(), e.getMessage());
+        m.written().completeExceptionally(e);
+        capacity.release();
+    }
+
+    private void fail(List<PendingMessage> batch, Exception e) {
+        for (PendingMessage m : batch) {
+            if (m.written().completeExceptionally(e)) capacity.release();
+        }
+    }
+
+    private void updateConversations(List<PendingMessage> batch) {
+        if (batch.isEmpty()) return;
+
+        // Only the newest message per conversation matters for the chat list
+        Map<String, PendingMessage> latest = new LinkedHashMap<>();
+        for (PendingMessage m : batch) {
+            latest.merge(m.conversationId(), m, (a, b) ->
+                    b.createdAt().isBefore(a.createdAt()) ? a : b);
+        }
+
+        List<PendingMessage> updates = new ArrayList<>(latest.values());
+        jdbcTemplate.batchUpdate(UPDATE_PREVIEW, updates, updates.size(),
+                (ps, m) -> {
+                    Timestamp at = Timestamp.valueOf(m.createdAt());
+                    ps.setString(1, m.preview());
+                    ps.setTimestamp(2, at);
+                    ps.setString(3, m.conversationId());
+                    ps.setTimestamp(4, at);
+                });
+
+        // One counter update per (conversation, sender) for the whole batch
+        Map<List<String>, List<Timestamp>> unread = new LinkedHashMap<>();
+        for (PendingMessage m : batch) {
+            unread.computeIfAbsent(List.of(m.conversationId(), m.senderId()),
+                    k -> new ArrayList<>()).add(Timestamp.valueOf(m.createdAt()));
+        }
+
+        List<Map.Entry<List<String>, List<Timestamp>>> increments =
+                new ArrayList<>(unread.entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_UNREAD, increments, increments.size(),
+                (ps, e) -> {
+                    Array sentAt = ps.getConnection().createArrayOf("timestamp",
+                            e.getValue().toArray());
+                    ps.setString(1, e.getKey().get(1));
+                    ps.setArray(2, sentAt);
+                    ps.setString(3, e.getKey().get(1));
+                    ps.setArray(4, sentAt);
+                    ps.setString(5, e.getKey().get(0));
+                });
+    }
+
+    private void bindInsert(PreparedStatement ps, PendingMessage m)
+            throws SQLException {
+        ps.setString(1, m.id());
+        ps.setString(2, m.conversationId());
+        ps.setString(3, m.senderId());
+        ps.setString(4, m.clientMessageId());
+        ps.setString(5, m.type());
+        ps.setString(6, m.content());
+        ps.setString(7, m.mediaUrl());
+        ps.setObject(8, m.mediaDuration(), Types.INTEGER);
+        ps.setString(9, m.status());
+        ps.setTimestamp(10, m.deliveredAt() != null
+                ? Timestamp.valueOf(m.deliveredAt()) : null);
+        ps.setTimestamp(11, Timestamp.valueOf(m.createdAt()));
+    }
+
+    private record PendingMessage(
+            String id,
+            String conversationId,
+            String senderId,
+            String clientMessageId,
+            String type,
+            String content,
+            String mediaUrl,
+            Integer mediaDuration,
+            String status,
+            LocalDateTime deliveredAt,
+            LocalDateTime createdAt,
+            String preview,
+            CompletableFuture<String> written
+    ) {}
+}
@@ -28,7 +28,8 @@ public class NotificationService {
     public void sendMessageNotification(String toUserId,
                                         String fromUserName,
                                         String messagePreview,
-                                        String conversationId) {
+                                        String conversationId,
+                                        int unreadTotal) {
         User user = getUser(toUserId);
         if (user == null || user.getFcmToken() == null) return;
 
@@ -62,7 +63,8 @@ public class NotificationService {
                                         .build()
                                 )
                                 .setSound("default")
-                                .setBadge(1)
+                                // App icon badge = unread messages across all chats
+                                .setBadge(unreadTotal)
                                 .build()
                         )
                         .build()
@@ -0,0 +1,29 @@
+package com.bokbok.meow.modules.presence.controller;
+
+import com.bokbok.meow.modules.presence.dto.PresenceQueryRequest;
+import com.bokbok.meow.modules.presence.dto.PresenceUpdate;
+import com.bokbok.meow.modules.presence.service.PresenceQueryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+public class PresenceController {
+
+    private final PresenceQueryService presenceQueryService;
+
+    // POST /api/presence/query → status + lastSeen for up to 500 users
+    @PostMapping("/query")
+    public ResponseEntity<List<PresenceUpdate>> query(
+            @Valid @RequestBody PresenceQueryRequest request) {
+        return ResponseEntity.ok(presenceQueryService.query(request.getUserIds()));
+    }
+}
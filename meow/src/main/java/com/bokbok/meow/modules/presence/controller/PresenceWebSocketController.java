@@ -0,0 +1,30 @@
+package com.bokbok.meow.modules.presence.controller;
+
+import com.bokbok.meow.modules.presence.dto.PresenceQueryRequest;
+import com.bokbok.meow.modules.presence.service.PresenceQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+@Controller
+@RequiredArgsConstructor
+public class PresenceWebSocketController {
+
+    private final PresenceQueryService presenceQueryService;
+
+    // Client sends to /app/presence.watch with the users on screen; it gets
+    // their current state, then only changes on /user/queue/presence.
+    // Each frame replaces the session's previous watch list.
+    @MessageMapping("/presence.watch")
+    public void watch(@Payload PresenceQueryRequest request,
+                      @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+                      Principal principal) {
+        if (principal == null || request.getUserIds() == null) return;
+        presenceQueryService.watch(sessionId, principal.getName(), request.getUserIds());
+    }
+}
@@ -0,0 +1,15 @@
+package com.bokbok.meow.modules.presence.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PresenceQueryRequest {
+
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 500, message = "At most 500 users per query")
+    private List<String> userIds;
+}
@@ -0,0 +1,19 @@
+package com.bokbok.meow.modules.presence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One user's presence — REST query rows and /queue/presence batch entries
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceUpdate {
+    private String userId;
+    private String status;           // ONLINE or OFFLINE
+    private LocalDateTime lastSeen;  // null while ONLINE or never seen
+}
@@ -0,0 +1,162 @@
+package com.bokbok.meow.modules.presence.service;
+
+import com.bokbok.meow.modules.presence.dto.PresenceUpdate;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.modules.user.service.UserStatusStore;
+import com.bokbok.meow.websocket.PresenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bulk presence for chat lists and search results, plus watch lists:
+//   watchers:presence:{userId}  SET of users watching this user
+// A watcher gets the current state of newly watched users once, then
+// only changes, through PresenceFanout's /queue/presence batches.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceQueryService {
+
+    private static final String WATCHERS_KEY = "watchers:presence:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${chat.presence.watch.max-users:500}")
+    private int maxWatched;
+
+    @Value("${chat.presence.watch.ttl-hours:24}")
+    private long watchTtlHours;
+
+    // sessionId → watcher userId and the users that session watches
+    private record Watch(String watcherId, Set<String> userIds) {}
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    // One MGET over presence:* and user:lastseen:* for all users
+    public List<PresenceUpdate> query(Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        if (ids.isEmpty()) return List.of();
+
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> keys.add(PresenceService.PRESENCE_KEY + id));
+        ids.forEach(id -> keys.add(UserStatusStore.LAST_SEEN_KEY + id));
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+
+        List<PresenceUpdate> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            boolean online = values != null && values.get(i) != null;
+            String lastSeen = values != null ? values.get(ids.size() + i) : null;
+            result.add(PresenceUpdate.builder()
+                    .userId(ids.get(i))
+                    .status(online ? User.UserStatus.ONLINE.name() : User.UserStatus.OFFLINE.name())
+                    .lastSeen(online || lastSeen == null ? null : LocalDateTime.parse(lastSeen))
+                    .build());
+        }
+        return result;
+    }
+
+    // Replaces the session's watch list; newly watched users are pushed once
+    public void watch(String sessionId, String watcherId, List<String> userIds) {
+        Set<String> wanted = new HashSet<>(userIds.subList(0, Math.min(userIds.size(), maxWatched)));
+        wanted.remove(watcherId);
+
+        Watch previous = watches.put(sessionId, new Watch(watcherId, wanted));
+        Set<String> before = previous != null ? previous.userIds() : Set.of();
+
+        Set<String> added = new HashSet<>(wanted);
+        added.removeAll(before);
+        Set<String> removed = new HashSet<>(before);
+        removed.removeAll(wanted);
+
+        updateWatchers(watcherId, added, stillUnwatched(watcherId, removed));
+        if (!added.isEmpty()) {
+            messagingTemplate.convertAndSendToUser(watcherId, "/queue/presence", query(added));
+        }
+    }
+
+    // Users watching any of these users, keyed by the watched user
+    @SuppressWarnings("unchecked")
+    public Map<String, Set<String>> watchersOf(Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(userIds);
+        Map<String, Set<String>> watchers = new HashMap<>();
+        if (ids.isEmpty()) return watchers;
+        try {
+            List<Object> members = redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                        ids.forEach(id -> conn.sMembers(WATCHERS_KEY + id));
+                        return null;
+                    });
+            for (int i = 0; i < ids.size(); i++) {
+                Set<String> set = (Set<String>) members.get(i);
+                if (set != null && !set.isEmpty()) watchers.put(ids.get(i), set);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Presence watcher lookup failed: {}", e.getMessage());
+        }
+        return watchers;
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        Watch watch = watches.remove(event.getSessionId());
+        if (watch != null) {
+            updateWatchers(watch.watcherId(), Set.of(),
+                    stillUnwatched(watch.watcherId(), watch.userIds()));
+        }
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    // Watch sets hold users, not sessions: keep an entry another local
+    // session of the same user still needs. The key TTL covers sessions on
+    // other nodes and crashed ones.
+    private Set<String> stillUnwatched(String watcherId, Set<String> userIds) {
+        Set<String> unwatched = new HashSet<>(userIds);
+        for (Watch other : watches.values()) {
+            if (other.watcherId().equals(watcherId)) unwatched.removeAll(other.userIds());
+        }
+        return unwatched;
+    }
+
+    private void updateWatchers(String watcherId, Set<String> added, Set<String> removed) {
+        if (added.isEmpty() && removed.isEmpty()) return;
+        long ttlSeconds = watchTtlHours * 3600;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                for (String userId : added) {
+                    conn.sAdd(WATCHERS_KEY + userId, watcherId);
+                    conn.expire(WATCHERS_KEY + userId, ttlSeconds);
+                }
+                for (String userId : removed) {
+                    conn.sRem(WATCHERS_KEY + userId, watcherId);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Presence watch update failed for {}: {}", watcherId, e.getMessage());
+        }
+    }
+}
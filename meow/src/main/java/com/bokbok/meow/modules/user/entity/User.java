@@ -39,6 +39,10 @@ public class User {
     @Builder.Default
     private UserStatus status = UserStatus.OFFLINE;
 
+    // When status was last changed; orders write-behind flushes from
+    // different nodes
+    private LocalDateTime statusChangedAt;
+
     private LocalDateTime lastSeen;
 
     @Column(nullable = false)
@@ -1,5 +1,6 @@
 package com.bokbok.meow.modules.user.service;
 
+import com.bokbok.meow.modules.chat.service.InboxService;
 import com.bokbok.meow.modules.media.service.MediaService;
 import com.bokbok.meow.modules.user.dto.UpdateProfileRequest;
 import com.bokbok.meow.modules.user.dto.UserProfileResponse;
@@ -11,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,32 +21,36 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final MediaService mediaService;
+    private final InboxService inboxService;
+    private final UserStatusStore userStatusStore;
 
     // Get my own profile
     public UserProfileResponse getMyProfile(String userId) {
         User user = findUserById(userId);
-        return UserProfileResponse.fromEntity(user);
+        return withLiveStatus(UserProfileResponse.fromEntity(user));
     }
 
     // Get any user's profile by ID
     public UserProfileResponse getUserById(String userId) {
         User user = findUserById(userId);
-        return UserProfileResponse.fromEntity(user);
+        return withLiveStatus(UserProfileResponse.fromEntity(user));
     }
 
     // Get user profile by phone number
     public UserProfileResponse getUserByPhone(String phone) {
         User user = userRepository.findByPhone(phone)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return UserProfileResponse.fromEntity(user);
+        return withLiveStatus(UserProfileResponse.fromEntity(user));
     }
 
     // Search users by name
     public List<UserProfileResponse> searchUsers(String query) {
-        return userRepository.findByNameContainingIgnoreCase(query)
+        List<UserProfileResponse> users = userRepository
+                .findByNameContainingIgnoreCase(query)
                 .stream()
                 .map(UserProfileResponse::fromEntity)
                 .collect(Collectors.toList());
+        return withLiveStatus(users);
     }
 
     // Update name, about, email
@@ -67,6 +73,7 @@ public class UserService {
         }
 
         userRepository.save(user);
+        inboxService.evictUserCard(userId);
         return UserProfileResponse.fromEntity(user);
     }
 
@@ -87,6 +94,7 @@ public class UserService {
         String avatarUrl = mediaService.uploadAvatar(file, userId);
         user.setAvatarUrl(avatarUrl);
         userRepository.save(user);
+        inboxService.evictUserCard(userId);
 
         return UserProfileResponse.fromEntity(user);
     }
@@ -99,6 +107,23 @@ public class UserService {
 
     // ── Private Helper ───────────────────────────────────────────
 
+    // Status / lastSeen in Postgres lag by up to one flush; Redis is current
+    private UserProfileResponse withLiveStatus(UserProfileResponse profile) {
+        return withLiveStatus(List.of(profile)).get(0);
+    }
+
+    private List<UserProfileResponse> withLiveStatus(List<UserProfileResponse> profiles) {
+        Map<String, UserStatusStore.Snapshot> live = userStatusStore.get(
+                profiles.stream().map(UserProfileResponse::getId).toList());
+        for (UserProfileResponse profile : profiles) {
+            UserStatusStore.Snapshot snapshot = live.get(profile.getId());
+            if (snapshot == null) continue;
+            profile.setStatus(snapshot.status().name());
+            if (snapshot.lastSeen() != null) profile.setLastSeen(snapshot.lastSeen());
+        }
+        return profiles;
+    }
+
     private User findUserById(String userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,172 @@
+package com.bokbok.meow.modules.user.service;
+
+import com.bokbok.meow.modules.user.entity.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// User status and lastSeen live in Redis:
+//   user:status:{userId}    ONLINE / OFFLINE / AWAY
+//   user:lastseen:{userId}  ISO local date-time
+// Postgres is written behind: changes are coalesced per user and flushed
+// every few seconds with one UPDATE over unnest() arrays, so a reconnect
+// storm costs one statement per interval instead of one per event.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatusStore {
+
+    public static final String STATUS_KEY = "user:status:";
+    public static final String LAST_SEEN_KEY = "user:lastseen:";
+
+    // Status only changes to a newer one — another node may flush an
+    // older OFFLINE after this one's ONLINE. lastSeen only moves forward;
+    // GREATEST ignores NULLs, so a null in the batch keeps the old value.
+    private static final String FLUSH_SQL =
+            "UPDATE users u SET " +
+            "status = CASE WHEN u.status_changed_at IS NULL " +
+            "OR v.changed_at > u.status_changed_at THEN v.status ELSE u.status END, " +
+            "status_changed_at = GREATEST(u.status_changed_at, v.changed_at), " +
+            "last_seen = GREATEST(u.last_seen, v.last_seen) " +
+            "FROM unnest(?::varchar[], ?::varchar[], ?::timestamp[], ?::timestamp[]) " +
+            "AS v(id, status, last_seen, changed_at) WHERE u.id = v.id";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.user-status.ttl-days:30}")
+    private long ttlDays;
+
+    public record Snapshot(User.UserStatus status, LocalDateTime lastSeen) {}
+
+    // changedAt — when the event was recorded, not when it is flushed
+    private record Change(User.UserStatus status, LocalDateTime lastSeen, LocalDateTime changedAt) {}
+
+    // Latest change per user since the last flush
+    private final Map<String, Change> pending = new ConcurrentHashMap<>();
+
+    private DistributionSummary flushSize;
+
+    @PostConstruct
+    public void init() {
+        flushSize = DistributionSummary.builder("chat.user-status.flush.size")
+                .description("Users written per status flush")
+                .register(meterRegistry);
+    }
+
+    public void record(String userId, User.UserStatus status, LocalDateTime lastSeen) {
+        long ttlSeconds = ttlDays * 86400;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                conn.setEx(STATUS_KEY + userId, ttlSeconds, status.name());
+                if (lastSeen != null) {
+                    conn.setEx(LAST_SEEN_KEY + userId, ttlSeconds, lastSeen.toString());
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            // Postgres still gets it on the next flush
+            log.warn("Status write failed for {}: {}", userId, e.getMessage());
+        }
+        pending.merge(userId, new Change(status, lastSeen, LocalDateTime.now()), (old, now) ->
+                new Change(now.status(), now.lastSeen() != null ? now.lastSeen() : old.lastSeen(),
+                        now.changedAt()));
+    }
+
+    // Live values for the given users; users without Redis state are absent
+    public Map<String, Snapshot> get(Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(userIds);
+        Map<String, Snapshot> result = new HashMap<>();
+        if (ids.isEmpty()) return result;
+
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> keys.add(STATUS_KEY + id));
+        ids.forEach(id -> keys.add(LAST_SEEN_KEY + id));
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) return result;
+            for (int i = 0; i < ids.size(); i++) {
+                String status = values.get(i);
+                if (status == null) continue;
+                String lastSeen = values.get(ids.size() + i);
+                result.put(ids.get(i), new Snapshot(User.UserStatus.valueOf(status),
+                        lastSeen != null ? LocalDateTime.parse(lastSeen) : null));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Status read failed, using DB values: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.user-status.flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<String, Change> batch = new HashMap<>();
+        for (Map.Entry<String, Change> e : pending.entrySet()) {
+            // remove(key, value): a change that arrived meanwhile stays queued
+            if (pending.remove(e.getKey(), e.getValue())) {
+                batch.put(e.getKey(), e.getValue());
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        String[] ids = new String[batch.size()];
+        String[] statuses = new String[batch.size()];
+        Timestamp[] lastSeens = new Timestamp[batch.size()];
+        Timestamp[] changedAts = new Timestamp[batch.size()];
+        int i = 0;
+        for (Map.Entry<String, Change> e : batch.entrySet()) {
+            ids[i] = e.getKey();
+            statuses[i] = e.getValue().status().name();
+            lastSeens[i] = e.getValue().lastSeen() != null
+                    ? Timestamp.valueOf(e.getValue().lastSeen()) : null;
+            changedAts[i] = Timestamp.valueOf(e.getValue().changedAt());
+            i++;
+        }
+
+        try {
+            jdbcTemplate.update(con -> {
+                var ps = con.prepareStatement(FLUSH_SQL);
+                ps.setArray(1, con.createArrayOf("varchar", ids));
+                ps.setArray(2, con.createArrayOf("varchar", statuses));
+                ps.setArray(3, con.createArrayOf("timestamp", lastSeens));
+                ps.setArray(4, con.createArrayOf("timestamp", changedAts));
+                return ps;
+            });
+            flushSize.record(batch.size());
+        } catch (DataAccessException e) {
+            // Put them back unless a newer change has been queued since
+            log.error("Status flush failed for {} users: {}", batch.size(), e.getMessage());
+            batch.forEach(pending::putIfAbsent);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+}
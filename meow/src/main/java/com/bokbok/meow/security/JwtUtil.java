@@ -1,60 +1,129 @@
 package com.bokbok.meow.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
+    // iat only has second precision; the revocation cutoff needs millis
+    static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+
+    private final TokenRevocationService tokenRevocationService;
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.access-token-expiry}")
     private long accessTokenExpiry;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Verified tokens, keyed by SHA-256 of the token, so a client that
+    // reuses its access token pays for the HMAC check once
+    @Value("${jwt.verified-cache.max-size:50000}")
+    private int verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private record Verified(Claims claims, long expiresAt) {}
+
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateAccessToken(String userId, String phone) {
+        long now = System.currentTimeMillis();
         Map<String, Object> claims = new HashMap<>();
         claims.put("phone", phone);
+        claims.put(ISSUED_AT_MS_CLAIM, now);
         return Jwts.builder()
                 .claims(claims)
                 .subject(userId)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + accessTokenExpiry))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + accessTokenExpiry))
+                .signWith(signingKey)
                 .compact();
     }
 
+    // Throws on a bad signature or an expired token
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String key = cacheKey(token);
+        Verified hit = verified.get(key);
+        if (hit != null) {
+            if (hit.expiresAt() > System.currentTimeMillis()) return hit.claims();
+            verified.remove(key);
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            // Crude bound — a full reset only costs one re-verification each
+            if (verified.size() >= verifiedCacheMaxSize) verified.clear();
+            verified.put(key, new Verified(claims, expiration.getTime()));
+        }
+        return claims;
     }
 
     public String extractUserId(String token) {
         return extractAllClaims(token).getSubject();
     }
 
-    public boolean isTokenValid(String token) {
+    // One verification for both checks — null when the token is expired,
+    // forged, or was issued before the user logged out
+    public String validateAndGetUserId(String token) {
         try {
             Claims claims = extractAllClaims(token);
-            return claims.getExpiration().after(new Date());
+            if (claims.getExpiration() == null
+                    || !claims.getExpiration().after(new Date())) return null;
+            if (tokenRevocationService.isRevoked(claims.getSubject(), issuedAtMillis(claims))) {
+                return null;
+            }
+            return claims.getSubject();
         } catch (Exception e) {
-            return false;
+            return null;
+        }
+    }
+
+    public boolean isTokenValid(String token) {
+        return validateAndGetUserId(token) != null;
+    }
+
+    // Tokens minted before iat_ms existed fall back to iat, which is the
+    // start of their second — so a logout in that second still revokes them
+    private long issuedAtMillis(Claims claims) {
+        Long issuedAtMs = claims.get(ISSUED_AT_MS_CLAIM, Long.class);
+        if (issuedAtMs != null) return issuedAtMs;
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+    }
+
+    private String cacheKey(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.bokbok.meow.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Access tokens are stateless, so logout cannot delete them. Instead
+// auth:revoked maps userId → revocation time (epoch millis) and any token
+// issued before that is rejected. Every node keeps the whole hash in
+// memory — it only holds logouts younger than the access token lifetime —
+// and hears new entries on auth:revocations, so checks are map lookups.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService implements MessageListener {
+
+    private static final String REVOKED_KEY = "auth:revoked";
+    private static final String CHANNEL = "auth:revocations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${jwt.access-token-expiry}")
+    private long accessTokenExpiry;
+
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        reload();
+    }
+
+    // Invalidates every access token issued to the user until now
+    public void revokeAll(String userId) {
+        long now = System.currentTimeMillis();
+        revokedAt.merge(userId, now, Math::max);
+        try {
+            redisTemplate.opsForHash().put(REVOKED_KEY, userId, String.valueOf(now));
+            redisTemplate.convertAndSend(CHANNEL, userId + ":" + now);
+        } catch (DataAccessException e) {
+            // Other nodes pick it up on their next reload
+            log.error("Could not publish revocation for {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Exact to the millisecond: a token issued in the same millisecond as
+    // the logout is revoked too, one issued after it is not
+    public boolean isRevoked(String userId, long issuedAtMillis) {
+        Long revoked = revokedAt.get(userId);
+        return revoked != null && issuedAtMillis <= revoked;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int colon = body.lastIndexOf(':');
+        if (colon < 0) return;
+        revokedAt.merge(body.substring(0, colon),
+                Long.parseLong(body.substring(colon + 1)), Math::max);
+    }
+
+    // Pub/sub is fire-and-forget: resync with the hash and drop entries no
+    // unexpired token can predate
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-ms:60000}")
+    public void reload() {
+        long horizon = System.currentTimeMillis() - accessTokenExpiry;
+        try {
+            Map<String, Long> current = new HashMap<>();
+            redisTemplate.opsForHash().entries(REVOKED_KEY).forEach((k, v) -> {
+                long at = Long.parseLong((String) v);
+                if (at < horizon) {
+                    redisTemplate.opsForHash().delete(REVOKED_KEY, k);
+                } else {
+                    current.put((String) k, at);
+                }
+            });
+            current.forEach((userId, at) -> revokedAt.merge(userId, at, Math::max));
+            revokedAt.values().removeIf(at -> at < horizon);
+        } catch (DataAccessException e) {
+            log.warn("Revocation list reload failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bokbok.meow.util;
+
+import org.hibernate.id.uuid.UuidVersion7Strategy;
+
+public class TimeOrderedIds {
+
+    // UUIDv7: 48-bit millisecond timestamp first, so new IDs sort after old
+    // ones and inserts append to the end of the primary-key index.
+    // Shares Hibernate's generator so IDs created outside JPA (batched JDBC
+    // inserts) stay monotonic with the ones @UuidGenerator assigns.
+    public static String next() {
+        return UuidVersion7Strategy.INSTANCE.generateUuid(null).toString();
+    }
+}
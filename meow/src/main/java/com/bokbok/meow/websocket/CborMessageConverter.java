@@ -0,0 +1,47 @@
+package com.bokbok.meow.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.nio.charset.StandardCharsets;
+
+// application/cbor payloads for STOMP. Strict content-type matching, so
+// it only handles frames that explicitly declare CBOR — JSON stays default.
+public class CborMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+
+    private final CBORMapper cborMapper;
+
+    public CborMessageConverter(CBORMapper cborMapper) {
+        super(APPLICATION_CBOR);
+        this.cborMapper = cborMapper;
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message,
+                                         Class<?> targetClass,
+                                         Object conversionHint) {
+        Object payload = message.getPayload();
+        byte[] bytes = payload instanceof byte[] b
+                ? b
+                : payload.toString().getBytes(StandardCharsets.UTF_8);
+        return cborMapper.readValue(bytes, targetClass);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload,
+                                       MessageHeaders headers,
+                                       Object conversionHint) {
+        return cborMapper.writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,41 @@
+package com.bokbok.meow.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+// Tomcat accepts permessage-deflate whenever the client offers it. This
+// makes it a switch: compressing costs CPU and a zlib window per session,
+// which matters more than bandwidth for small chat frames on a busy node.
+@Component
+@Slf4j
+public class DeflateHandshakeHandler extends DefaultHandshakeHandler {
+
+    public static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean deflateEnabled;
+
+    public DeflateHandshakeHandler(
+            @Value("${chat.ws.deflate.enabled:true}") boolean deflateEnabled) {
+        this.deflateEnabled = deflateEnabled;
+        log.info("WebSocket permessage-deflate {}", deflateEnabled ? "enabled" : "disabled");
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(
+            ServerHttpRequest request,
+            List<WebSocketExtension> requestedExtensions,
+            List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> extensions = super.filterRequestedExtensions(
+                request, requestedExtensions, supportedExtensions);
+        if (deflateEnabled) return extensions;
+        return extensions.stream()
+                .filter(e -> !PERMESSAGE_DEFLATE.equalsIgnoreCase(e.getName()))
+                .toList();
+    }
+}
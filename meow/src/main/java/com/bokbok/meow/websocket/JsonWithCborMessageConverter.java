@@ -0,0 +1,56 @@
+package com.bokbok.meow.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.converter.SmartMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+// Outbound JSON as Boot's converter writes it, plus the payload's CBOR
+// body in a header, so CBOR sessions get a frame encoded from the object
+// itself. Only converts to messages; inbound JSON stays with Boot's.
+public class JsonWithCborMessageConverter implements SmartMessageConverter {
+
+    private final JacksonJsonMessageConverter json;
+    private final PayloadFormats payloadFormats;
+
+    public JsonWithCborMessageConverter(JsonMapper jsonMapper, PayloadFormats payloadFormats) {
+        this.json = new JacksonJsonMessageConverter(jsonMapper);
+        DefaultContentTypeResolver resolver = new DefaultContentTypeResolver();
+        resolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        this.json.setContentTypeResolver(resolver);
+        this.payloadFormats = payloadFormats;
+    }
+
+    @Override
+    public Object fromMessage(Message<?> message, Class<?> targetClass) {
+        return null;
+    }
+
+    @Override
+    public Object fromMessage(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        return null;
+    }
+
+    @Override
+    public Message<?> toMessage(Object payload, MessageHeaders headers) {
+        return toMessage(payload, headers, null);
+    }
+
+    @Override
+    public Message<?> toMessage(Object payload, MessageHeaders headers, Object conversionHint) {
+        // Raw bodies are left to the converters after this one
+        if (payload instanceof byte[] || payload instanceof String) return null;
+
+        Message<?> message = json.toMessage(payload, headers, conversionHint);
+        if (message == null) return null;
+
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setHeader(PayloadFormats.CBOR_BODY_HEADER, payloadFormats.cborBody(payload));
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+}
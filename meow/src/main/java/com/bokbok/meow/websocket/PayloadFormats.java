@@ -0,0 +1,131 @@
+package com.bokbok.meow.websocket;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Sessions that asked for CBOR frames on CONNECT (payload-format: cbor).
+// Everyone else gets JSON. CBOR bodies are not valid UTF-8, so frames to
+// those sessions go out as WebSocket binary messages. SockJS can only
+// carry text, so the preference is ignored there.
+//
+// A message's CBOR body is encoded from the payload object once, when the
+// first CBOR session needs it, and travels next to the JSON body in the
+// CBOR_BODY_HEADER message header.
+@Component
+public class PayloadFormats implements WebSocketHandlerDecoratorFactory {
+
+    public static final String HEADER = "payload-format";
+    public static final String CBOR_BODY_HEADER = "cborBody";
+
+    // Dates as numbers, not ISO strings
+    private final CBORMapper cborMapper = CBORMapper.builder()
+            .enable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    // Raw WebSocket sessions — the only ones that can take binary frames
+    private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    public void negotiate(String sessionId, String requestedFormat) {
+        if (sessionId != null && "cbor".equalsIgnoreCase(requestedFormat)
+                && binarySessions.contains(sessionId)) {
+            cborSessions.add(sessionId);
+        }
+    }
+
+    public boolean isCbor(String sessionId) {
+        return sessionId != null && cborSessions.contains(sessionId);
+    }
+
+    public CBORMapper cborMapper() {
+        return cborMapper;
+    }
+
+    public CborBody cborBody(Object payload) {
+        return new CborBody(() -> cborMapper.writeValueAsBytes(payload));
+    }
+
+    // JSON that arrives already encoded (broker relay, other nodes); its
+    // dates stay the strings the JSON carried
+    public CborBody cborBodyOfJson(byte[] json, JsonMapper jsonMapper) {
+        return new CborBody(() -> cborMapper.writeValueAsBytes(jsonMapper.readTree(json)));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        cborSessions.remove(event.getSessionId());
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (session instanceof SockJsSession) {
+                    super.afterConnectionEstablished(session);
+                    return;
+                }
+                binarySessions.add(session.getId());
+                super.afterConnectionEstablished(binary(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session,
+                                              CloseStatus closeStatus) throws Exception {
+                binarySessions.remove(session.getId());
+                cborSessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // Encoded on first use, then shared by every session the message reaches
+    public static final class CborBody {
+
+        private final Supplier<byte[]> bytes;
+
+        private CborBody(Supplier<byte[]> encoder) {
+            this.bytes = SingletonSupplier.of(encoder);
+        }
+
+        public byte[] bytes() {
+            return bytes.get();
+        }
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    // The STOMP handler always writes text; re-wrap the same bytes
+    private WebSocketSession binary(WebSocketSession session) {
+        return new WebSocketSessionDecorator(session) {
+            @Override
+            public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                if (message instanceof TextMessage text && isCbor(getId())) {
+                    super.sendMessage(new BinaryMessage(text.asBytes(), text.isLast()));
+                } else {
+                    super.sendMessage(message);
+                }
+            }
+        };
+    }
+}
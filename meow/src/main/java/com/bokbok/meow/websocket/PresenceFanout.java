@@ -0,0 +1,122 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.modules.chat.service.ContactGraph;
+import com.bokbok.meow.modules.presence.dto.PresenceUpdate;
+import com.bokbok.meow.modules.presence.service.PresenceQueryService;
+import com.bokbok.meow.modules.user.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tells a user's conversation partners — and anyone watching them through
+// /app/presence.watch — when they come online or go offline. Changes are
+// held for a debounce window: a reconnect that lands back on the starting
+// status is dropped, and everything that settled in one tick goes out as
+// a single /queue/presence batch per recipient.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceFanout {
+
+    private final ContactGraph contactGraph;
+    private final PresenceQueryService presenceQueryService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.presence.fanout.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.presence.fanout.debounce-ms:3000}")
+    private long debounceMs;
+
+    // Status before the window opened, latest status, when it opened
+    private record Pending(User.UserStatus before,
+                           User.UserStatus current,
+                           long since,
+                           LocalDateTime at) {}
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private Counter debounced;
+    private Counter batches;
+
+    @PostConstruct
+    public void init() {
+        debounced = Counter.builder("chat.presence.fanout.debounced")
+                .description("Status changes dropped because the user flapped back")
+                .register(meterRegistry);
+        batches = Counter.builder("chat.presence.fanout.batches")
+                .description("Coalesced presence frames sent to recipients")
+                .register(meterRegistry);
+    }
+
+    public void statusChanged(String userId,
+                              User.UserStatus before,
+                              User.UserStatus current) {
+        if (!enabled) return;
+        LocalDateTime at = LocalDateTime.now();
+        pending.compute(userId, (id, p) -> p == null
+                ? new Pending(before, current, System.currentTimeMillis(), at)
+                : new Pending(p.before(), current, p.since(), at));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.fanout.flush-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+        long settledBefore = System.currentTimeMillis() - debounceMs;
+
+        Map<String, Pending> settled = new HashMap<>();
+        for (Map.Entry<String, Pending> e : pending.entrySet()) {
+            Pending p = e.getValue();
+            // remove(key, value): a change that arrived meanwhile stays queued
+            if (p.since() <= settledBefore && pending.remove(e.getKey(), p)) {
+                if (p.current() == p.before()) {
+                    debounced.increment();
+                } else {
+                    settled.put(e.getKey(), p);
+                }
+            }
+        }
+        if (settled.isEmpty()) return;
+
+        try {
+            Map<String, Set<String>> contacts = contactGraph.contactsOf(settled.keySet());
+            Map<String, Set<String>> watchers = presenceQueryService.watchersOf(settled.keySet());
+
+            Map<String, List<PresenceUpdate>> byRecipient = new HashMap<>();
+            settled.forEach((userId, p) -> {
+                PresenceUpdate update = PresenceUpdate.builder()
+                        .userId(userId)
+                        .status(p.current().name())
+                        .lastSeen(p.current() == User.UserStatus.ONLINE ? null : p.at())
+                        .build();
+                Set<String> recipients = new HashSet<>(contacts.getOrDefault(userId, Set.of()));
+                recipients.addAll(watchers.getOrDefault(userId, Set.of()));
+                for (String recipient : recipients) {
+                    byRecipient.computeIfAbsent(recipient, r -> new ArrayList<>()).add(update);
+                }
+            });
+
+            byRecipient.forEach((recipient, updates) ->
+                    messagingTemplate.convertAndSendToUser(recipient, "/queue/presence", updates));
+            batches.increment(byRecipient.size());
+        } catch (Exception e) {
+            log.error("Presence fan-out failed for {} users: {}", settled.size(), e.getMessage());
+        }
+    }
+}
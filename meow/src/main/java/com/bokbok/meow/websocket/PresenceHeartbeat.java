@@ -0,0 +1,61 @@
+package com.bokbok.meow.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps presence:{userId} alive for every user connected to this node.
+// STOMP heartbeats close dead sockets, so a session that is still in the
+// session registry is a live client — idle or not — and its key is
+// refreshed in one pipelined batch per tick instead of one EXPIRE per message.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceHeartbeat {
+
+    private final PresenceService presenceService;
+    private final SessionRegistry sessionRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.presence.heartbeat.batch-size:1000}")
+    private int batchSize;
+
+    private Counter reinstated;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("chat.presence.local.sessions", sessionRegistry,
+                        SessionRegistry::localSessionCount)
+                .description("WebSocket sessions whose presence this node refreshes")
+                .register(meterRegistry);
+        reinstated = Counter.builder("chat.presence.heartbeat.reinstated")
+                .description("Presence keys that had expired for connected users")
+                .register(meterRegistry);
+    }
+
+    // Well inside the 2 minute presence TTL, so one missed tick is harmless
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat.interval-ms:30000}")
+    public void refresh() {
+        List<String> userIds = List.copyOf(sessionRegistry.localUserIds());
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<String> batch = new ArrayList<>(
+                    userIds.subList(from, Math.min(from + batchSize, userIds.size())));
+            try {
+                reinstated.increment(presenceService.refreshAll(batch));
+            } catch (DataAccessException e) {
+                log.warn("Presence heartbeat failed for {} users: {}",
+                        batch.size(), e.getMessage());
+            }
+        }
+    }
+}
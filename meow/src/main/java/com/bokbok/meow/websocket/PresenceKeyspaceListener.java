@@ -0,0 +1,86 @@
+package com.bokbok.meow.websocket;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+// Evicts near-cached presence when presence:* keys change on any node.
+// Listens on __keyspace@*__:presence:* — needs notify-keyspace-events to
+// include K, g, $ and x, which this tries to enable at startup.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceKeyspaceListener implements MessageListener {
+
+    private static final String NOTIFY_CONFIG = "notify-keyspace-events";
+    private static final String REQUIRED_FLAGS = "Kg$x";
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final StringRedisTemplate redisTemplate;
+    private final PresenceService presenceService;
+
+    @Value("${chat.presence.near-cache.enabled:true}")
+    private boolean enabled;
+
+    // Managed Redis often disallows CONFIG SET — then set the flags there
+    @Value("${chat.presence.near-cache.configure-notifications:true}")
+    private boolean configureNotifications;
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) return;
+        if (configureNotifications) enableNotifications();
+        listenerContainer.addMessageListener(this,
+                new PatternTopic("__keyspace@*__:" + PresenceService.PRESENCE_KEY + "*"));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String event = new String(message.getBody(), StandardCharsets.UTF_8);
+        // TTL refreshes do not change who is online
+        if ("expire".equals(event)) return;
+
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        int at = channel.indexOf(PresenceService.PRESENCE_KEY);
+        if (at < 0) return;
+        presenceService.evict(channel.substring(at + PresenceService.PRESENCE_KEY.length()));
+    }
+
+    private void enableNotifications() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                RedisServerCommands server = connection.serverCommands();
+                Properties current = server.getConfig(NOTIFY_CONFIG);
+                String flags = current != null
+                        ? current.getProperty(NOTIFY_CONFIG, "") : "";
+
+                StringBuilder merged = new StringBuilder(flags);
+                for (char flag : REQUIRED_FLAGS.toCharArray()) {
+                    // A covers g, $ and x
+                    boolean covered = flag != 'K' && flags.indexOf('A') >= 0;
+                    if (!covered && flags.indexOf(flag) < 0) merged.append(flag);
+                }
+                if (!merged.toString().equals(flags)) {
+                    server.setConfig(NOTIFY_CONFIG, merged.toString());
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not enable keyspace notifications, presence near-cache " +
+                    "relies on its TTL: {}", e.getMessage());
+        }
+    }
+}
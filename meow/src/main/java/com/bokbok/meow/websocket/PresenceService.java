@@ -1,37 +1,197 @@
 package com.bokbok.meow.websocket;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+// Online state lives in Redis (presence:{userId} with a TTL). Reads go
+// through a short-lived node-local near-cache; PresenceKeyspaceListener
+// evicts entries when another node changes a key, and the TTL bounds
+// staleness if notifications are unavailable.
 @Service
 @RequiredArgsConstructor
 public class PresenceService {
 
     private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
 
-    private static final String PRESENCE_KEY = "presence:";
+    public static final String PRESENCE_KEY = "presence:";
     private static final Duration PRESENCE_TTL = Duration.ofMinutes(2);
 
+    @Value("${chat.presence.near-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${chat.presence.near-cache.ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    @Value("${chat.presence.near-cache.max-size:100000}")
+    private int cacheMaxSize;
+
+    private record Cached(boolean online, long expiresAt) {}
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    // Striped by user, bumped on every eviction — a Redis read that raced
+    // with an eviction for the same stripe is not cached
+    private static final int STRIPES = 1024;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("chat.presence.cache")
+                .tag("result", "hit")
+                .description("Presence lookups answered by the near-cache")
+                .register(meterRegistry);
+        misses = Counter.builder("chat.presence.cache")
+                .tag("result", "miss")
+                .description("Presence lookups that went to Redis")
+                .register(meterRegistry);
+        evictions = Counter.builder("chat.presence.cache.evictions")
+                .description("Near-cache entries dropped by keyspace notifications")
+                .register(meterRegistry);
+        Gauge.builder("chat.presence.cache.size", cache, Map::size)
+                .register(meterRegistry);
+    }
+
     public void setOnline(String userId) {
         redisTemplate.opsForValue()
                 .set(PRESENCE_KEY + userId, "ONLINE", PRESENCE_TTL);
+        writeThrough(userId, true);
     }
 
     public void setOffline(String userId) {
         redisTemplate.delete(PRESENCE_KEY + userId);
+        writeThrough(userId, false);
     }
 
     public boolean isOnline(String userId) {
-        return Boolean.TRUE.equals(
+        Boolean cached = cached(userId);
+        if (cached != null) return cached;
+
+        long seen = generations.get(stripe(userId));
+        boolean online = Boolean.TRUE.equals(
                 redisTemplate.hasKey(PRESENCE_KEY + userId)
         );
+        cache(userId, online, seen);
+        return online;
+    }
+
+    // One pipelined round trip for a whole chat list; cached users skip it
+    public Map<String, Boolean> areOnline(List<String> userIds) {
+        if (userIds.isEmpty()) return Map.of();
+
+        Map<String, Boolean> online = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String userId : userIds) {
+            Boolean cached = cached(userId);
+            if (cached != null) {
+                online.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) return online;
+
+        long[] seen = new long[missing.size()];
+        for (int i = 0; i < seen.length; i++) {
+            seen[i] = generations.get(stripe(missing.get(i)));
+        }
+        List<Object> results = redisTemplate.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                    missing.forEach(id -> conn.exists(PRESENCE_KEY + id));
+                    return null;
+                });
+
+        for (int i = 0; i < missing.size(); i++) {
+            boolean isOnline = Boolean.TRUE.equals(results.get(i));
+            online.put(missing.get(i), isOnline);
+            cache(missing.get(i), isOnline, seen[i]);
+        }
+        return online;
+    }
+
+    // Heartbeat for users connected to this node: one pipelined EXPIRE per
+    // user, then re-SET any key that had already expired (e.g. Redis was
+    // unreachable for longer than the TTL). Returns how many were re-set.
+    public int refreshAll(List<String> userIds) {
+        if (userIds.isEmpty()) return 0;
+        long ttlSeconds = PRESENCE_TTL.toSeconds();
+        List<Object> refreshed = redisTemplate.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+                    userIds.forEach(id -> conn.expire(PRESENCE_KEY + id, ttlSeconds));
+                    return null;
+                });
+
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            if (!Boolean.TRUE.equals(refreshed.get(i))) expired.add(userIds.get(i));
+        }
+        if (expired.isEmpty()) return 0;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = new DefaultStringRedisConnection(connection);
+            expired.forEach(id -> conn.setEx(PRESENCE_KEY + id, ttlSeconds, "ONLINE"));
+            return null;
+        });
+        return expired.size();
+    }
+
+    // Called when presence:{userId} changed anywhere in the cluster
+    public void evict(String userId) {
+        generations.incrementAndGet(stripe(userId));
+        if (cache.remove(userId) != null) {
+            evictions.increment();
+        }
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private Boolean cached(String userId) {
+        if (!cacheEnabled) return null;
+        Cached entry = cache.get(userId);
+        if (entry == null || entry.expiresAt() < System.currentTimeMillis()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.online();
+    }
+
+    // Own writes are known without waiting for the notification round trip
+    private void writeThrough(String userId, boolean online) {
+        cache(userId, online, generations.incrementAndGet(stripe(userId)));
+    }
+
+    private void cache(String userId, boolean online, long seenGeneration) {
+        if (!cacheEnabled || generations.get(stripe(userId)) != seenGeneration) return;
+        // Crude bound — entries live for seconds, so a full reset is cheap
+        if (cache.size() >= cacheMaxSize) cache.clear();
+        cache.put(userId, new Cached(online, System.currentTimeMillis() + cacheTtlMs));
     }
 
-    // Refresh TTL — call this on every message/activity
-    public void refreshPresence(String userId) {
-        redisTemplate.expire(PRESENCE_KEY + userId, PRESENCE_TTL);
+    private int stripe(String userId) {
+        return userId.hashCode() & (STRIPES - 1);
     }
-}
\ No newline at end of file
+}
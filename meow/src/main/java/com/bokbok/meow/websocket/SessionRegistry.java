@@ -0,0 +1,192 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.websocket.cluster.ClusterNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Live WebSocket sessions per user, shared through Redis:
+// ws:sessions:{userId} is a hash of nodeId → that user's sessions on the
+// node. Counts change in one Lua call that also prunes nodes whose
+// heartbeat in ws:nodes is stale, so a crashed node cannot keep a user
+// online. Callers get told about the 0 → 1 and 1 → 0 transitions only.
+//
+// Cluster routing asks which other nodes hold a user's sessions on every
+// /user frame, so answers are cached per node. The script publishes the
+// user ID on ws:routes whenever a node gains its first or loses its last
+// session for that user, and every node drops its cached route.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionRegistry implements MessageListener {
+
+    public static final String SESSIONS_KEY = "ws:sessions:";
+    public static final String ROUTES_CHANNEL = "ws:routes";
+
+    // KEYS: sessions hash, nodes hash
+    // ARGV: nodeId, delta, now millis, node timeout millis, routes channel, userId
+    // Returns {total before, total after} across live nodes
+    private static final RedisScript<List> ADJUST = new DefaultRedisScript<>("""
+            local before, own = 0, 0
+            local fields = redis.call('HGETALL', KEYS[1])
+            for i = 1, #fields, 2 do
+              local node, count = fields[i], tonumber(fields[i + 1])
+              if node == ARGV[1] then
+                own = math.max(count, 0)
+              else
+                local seen = tonumber(redis.call('HGET', KEYS[2], node) or '0')
+                if tonumber(ARGV[3]) - seen > tonumber(ARGV[4]) then
+                  redis.call('HDEL', KEYS[1], node)
+                  count = 0
+                end
+              end
+              before = before + math.max(count, 0)
+            end
+            local mine = redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])
+            if mine <= 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end
+            if (own > 0) ~= (mine > 0) then redis.call('PUBLISH', ARGV[5], ARGV[6]) end
+            return {before, before - own + math.max(mine, 0)}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ClusterNode clusterNode;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.cluster.node-timeout-ms:30000}")
+    private long nodeTimeoutMs;
+
+    // Upper bound on staleness if a ws:routes message is missed
+    @Value("${chat.cluster.route-cache.ttl-ms:5000}")
+    private long routeTtlMs;
+
+    @Value("${chat.cluster.route-cache.max-size:100000}")
+    private int routeCacheMaxSize;
+
+    // sessionId → userId; disconnect events can repeat for one session
+    private final Map<String, String> localSessions = new ConcurrentHashMap<>();
+
+    private record Route(List<String> nodes, long expiresAt) {}
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    // Same guard as the presence near-cache: a lookup that raced with an
+    // eviction for its stripe is not cached
+    private static final int STRIPES = 1024;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private Counter routeHits;
+    private Counter routeMisses;
+
+    @PostConstruct
+    public void subscribe() {
+        routeHits = Counter.builder("chat.cluster.route-cache")
+                .tag("result", "hit")
+                .description("Relay lookups answered from the local route cache")
+                .register(meterRegistry);
+        routeMisses = Counter.builder("chat.cluster.route-cache")
+                .tag("result", "miss")
+                .description("Relay lookups that read ws:sessions from Redis")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(ROUTES_CHANNEL));
+    }
+
+    // A node gained or lost this user — forget the cached route
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String userId = new String(message.getBody(), StandardCharsets.UTF_8);
+        generations.incrementAndGet(stripe(userId));
+        routes.remove(userId);
+    }
+
+    // True when this is the user's first live session anywhere
+    public boolean connected(String sessionId, String userId) {
+        if (localSessions.putIfAbsent(sessionId, userId) != null) return false;
+        long[] totals = adjust(userId, 1);
+        return totals[0] == 0 && totals[1] > 0;
+    }
+
+    // True when the user's last live session anywhere just closed
+    public boolean disconnected(String sessionId) {
+        String userId = localSessions.remove(sessionId);
+        if (userId == null) return false;
+        long[] totals = adjust(userId, -1);
+        return totals[0] > 0 && totals[1] == 0;
+    }
+
+    // Users with at least one session on this node
+    public Collection<String> localUserIds() {
+        return localSessions.values().stream().distinct().toList();
+    }
+
+    public int localSessionCount() {
+        return localSessions.size();
+    }
+
+    // Other live nodes holding at least one session for this user.
+    // Liveness is checked on every call, so a dead node drops out at once.
+    public List<String> remoteNodesFor(String userId) {
+        Route route = routes.get(userId);
+        if (route != null && route.expiresAt() >= System.currentTimeMillis()) {
+            routeHits.increment();
+        } else {
+            routeMisses.increment();
+            long seen = generations.get(stripe(userId));
+            Map<Object, Object> nodes = redisTemplate.opsForHash()
+                    .entries(SESSIONS_KEY + userId);
+            route = new Route(nodes.entrySet().stream()
+                    .filter(e -> Long.parseLong((String) e.getValue()) > 0)
+                    .map(e -> (String) e.getKey())
+                    .filter(node -> !node.equals(clusterNode.getNodeId()))
+                    .toList(), System.currentTimeMillis() + routeTtlMs);
+            if (generations.get(stripe(userId)) == seen) {
+                // Crude bound — entries live for seconds, so a full reset is cheap
+                if (routes.size() >= routeCacheMaxSize) routes.clear();
+                routes.put(userId, route);
+            }
+        }
+        return route.nodes().stream().filter(clusterNode::isAlive).toList();
+    }
+
+    private long[] adjust(String userId, int delta) {
+        try {
+            List<?> totals = redisTemplate.execute(ADJUST,
+                    List.of(SESSIONS_KEY + userId, ClusterNode.NODES_KEY),
+                    clusterNode.getNodeId(),
+                    String.valueOf(delta),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(nodeTimeoutMs),
+                    ROUTES_CHANNEL,
+                    userId);
+            return new long[]{((Number) totals.get(0)).longValue(),
+                    ((Number) totals.get(1)).longValue()};
+        } catch (DataAccessException e) {
+            // Without the shared count, treat every session as the only one
+            log.warn("Session registry update failed for {}: {}", userId, e.getMessage());
+            return delta > 0 ? new long[]{0, 1} : new long[]{1, 0};
+        }
+    }
+
+    private int stripe(String userId) {
+        return userId.hashCode() & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.bokbok.meow.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+// Transport-level meters for /ws:
+//   chat.ws.slow-consumer.closed  sessions dropped for exceeding the send
+//                                 time or buffer limit
+//   chat.ws.compression.ratio     deflated / raw size of sampled frames on
+//                                 sessions that negotiated permessage-deflate
+// Tomcat compresses inside the container, so the ratio is estimated by
+// deflating a sample of outbound frames the same way (raw DEFLATE).
+@Component
+public class TransportMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private final Counter slowConsumers;
+    private final DistributionSummary compressionRatio;
+    private final AtomicLong outboundFrames = new AtomicLong();
+
+    // 1 in N outbound frames is deflated for the ratio; 0 disables sampling
+    private final int sampleEvery;
+
+    public TransportMetrics(MeterRegistry meterRegistry,
+                            @Value("${chat.ws.deflate.sample-every:100}") int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+        this.slowConsumers = Counter.builder("chat.ws.slow-consumer.closed")
+                .description("Sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+        this.compressionRatio = DistributionSummary.builder("chat.ws.compression.ratio")
+                .description("Deflated / raw size of sampled outbound frames")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                boolean deflated = sampleEvery > 0 && session.getExtensions().stream()
+                        .anyMatch(e -> DeflateHandshakeHandler.PERMESSAGE_DEFLATE
+                                .equalsIgnoreCase(e.getName()));
+                // The STOMP handler keeps whatever session it is given, so
+                // wrapping here sees every outbound frame
+                super.afterConnectionEstablished(deflated ? sampling(session) : session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session,
+                                              CloseStatus closeStatus) throws Exception {
+                // ConcurrentWebSocketSessionDecorator closes with this status
+                // when a session's send time or buffer limit is exceeded
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowConsumers.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private WebSocketSession sampling(WebSocketSession session) {
+        return new WebSocketSessionDecorator(session) {
+            @Override
+            public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                if (outboundFrames.incrementAndGet() % sampleEvery == 0) {
+                    recordRatio(message);
+                }
+                super.sendMessage(message);
+            }
+        };
+    }
+
+    private void recordRatio(WebSocketMessage<?> message) {
+        byte[] raw;
+        if (message instanceof TextMessage text) {
+            raw = text.asBytes();
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            raw = new byte[payload.remaining()];
+            payload.get(raw);
+        } else {
+            return;  // pings / pongs
+        }
+        if (raw.length == 0) return;
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buffer = new byte[raw.length + 64];
+            int compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buffer);
+            }
+            compressionRatio.record((double) compressed / raw.length);
+        } finally {
+            deflater.end();
+        }
+    }
+}
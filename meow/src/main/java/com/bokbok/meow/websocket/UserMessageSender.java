@@ -0,0 +1,58 @@
+package com.bokbok.meow.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Collection;
+
+// Fan-out to several users with a single Jackson pass. convertAndSendToUser
+// serializes once per call; here the payload is encoded once and the same
+// byte[] is handed to every recipient (and from there to every session).
+// The same goes for its CBOR body.
+@Component
+@RequiredArgsConstructor
+public class UserMessageSender {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void sendToUsers(Collection<String> userIds,
+                            String destination,
+                            Object payload) {
+        Message<?> encoded = messagingTemplate.getMessageConverter()
+                .toMessage(payload, null);
+        if (encoded == null) {
+            throw new IllegalStateException(
+                    "No converter for " + payload.getClass().getSimpleName());
+        }
+
+        MimeType contentType = encoded.getHeaders()
+                .get(MessageHeaders.CONTENT_TYPE, MimeType.class);
+        Object cborBody = encoded.getHeaders().get(PayloadFormats.CBOR_BODY_HEADER);
+        String prefix = messagingTemplate.getUserDestinationPrefix();
+
+        for (String userId : userIds) {
+            // Headers are per recipient — the template stamps the destination
+            SimpMessageHeaderAccessor headers =
+                    SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setContentType(contentType != null
+                    ? contentType : MimeTypeUtils.APPLICATION_JSON);
+            if (cborBody != null) {
+                headers.setHeader(PayloadFormats.CBOR_BODY_HEADER, cborBody);
+            }
+            headers.setLeaveMutable(true);
+
+            messagingTemplate.send(
+                    prefix + userId.replace("/", "%2F") + destination,
+                    MessageBuilder.createMessage(encoded.getPayload(),
+                            headers.getMessageHeaders()));
+        }
+    }
+}
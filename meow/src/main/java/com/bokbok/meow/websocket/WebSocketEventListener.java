@@ -1,18 +1,16 @@
 package com.bokbok.meow.websocket;
 
 import com.bokbok.meow.modules.user.entity.User;
-import com.bokbok.meow.modules.user.repository.UserRepository;
+import com.bokbok.meow.modules.user.service.UserStatusStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -20,8 +18,9 @@ import java.util.Map;
 public class WebSocketEventListener {
 
     private final PresenceService presenceService;
-    private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final UserStatusStore userStatusStore;
+    private final PresenceFanout presenceFanout;
+    private final SessionRegistry sessionRegistry;
 
     @EventListener
     public void handleConnect(SessionConnectedEvent event) {
@@ -29,13 +28,19 @@ public class WebSocketEventListener {
 
         if (accessor.getUser() != null) {
             String userId = accessor.getUser().getName();
+            // A second device or a SockJS reconnect changes nothing
+            if (!sessionRegistry.connected(accessor.getSessionId(), userId)) {
+                log.debug("Additional session for {}", userId);
+                return;
+            }
             presenceService.setOnline(userId);
 
-            // Update DB status
-            userRepository.findById(userId).ifPresent(user -> {
-                user.setStatus(User.UserStatus.ONLINE);
-                userRepository.save(user);
-            });
+            // Postgres catches up on the next status flush
+            userStatusStore.record(userId, User.UserStatus.ONLINE, null);
+
+            // Conversation partners learn about it once the debounce settles
+            presenceFanout.statusChanged(userId,
+                    User.UserStatus.OFFLINE, User.UserStatus.ONLINE);
 
             log.info("User connected: {}", userId);
         }
@@ -47,21 +52,18 @@ public class WebSocketEventListener {
 
         if (accessor.getUser() != null) {
             String userId = accessor.getUser().getName();
+            // Still connected elsewhere — stays online
+            if (!sessionRegistry.disconnected(accessor.getSessionId())) {
+                log.debug("Session closed, {} still connected", userId);
+                return;
+            }
             presenceService.setOffline(userId);
 
-            // Update DB status and lastSeen
-            userRepository.findById(userId).ifPresent(user -> {
-                user.setStatus(User.UserStatus.OFFLINE);
-                user.setLastSeen(LocalDateTime.now());
-                userRepository.save(user);
-            });
+            userStatusStore.record(userId, User.UserStatus.OFFLINE, LocalDateTime.now());
 
-            // Notify all relevant users this person went offline
-            messagingTemplate.convertAndSendToUser(
-                    userId,
-                    "/queue/presence",
-                    Map.of("userId", userId, "status", "OFFLINE")
-            );
+            // Notify conversation partners this person went offline
+            presenceFanout.statusChanged(userId,
+                    User.UserStatus.ONLINE, User.UserStatus.OFFLINE);
 
             log.info("User disconnected: {}", userId);
         }
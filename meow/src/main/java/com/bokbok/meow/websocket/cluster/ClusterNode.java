@@ -0,0 +1,119 @@
+package com.bokbok.meow.websocket.cluster;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// This instance's identity in the cluster. Every node writes a heartbeat
+// into the ws:nodes hash (nodeId → epoch millis) and keeps a local view of
+// which nodes are alive, so routing never pays for a liveness lookup.
+// Always on: session counts are kept per node even on a single instance,
+// so a crashed process's sessions can be told apart and pruned.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterNode implements SmartLifecycle {
+
+    public static final String NODES_KEY = "ws:nodes";
+
+    // Stops after the WebSocket handlers (DEFAULT_PHASE) close their
+    // sessions, and before the Redis connection factory (phase 0) does
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1024;
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${chat.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${chat.cluster.node-timeout-ms:30000}")
+    private long nodeTimeoutMs;
+
+    private String nodeId;
+    private volatile Set<String> aliveNodes = Set.of();
+    private volatile boolean running;
+
+    // Registered as soon as the bean exists, so routing works before the
+    // context finishes starting
+    @PostConstruct
+    public void register() {
+        // A fresh ID per process, so a restarted node never inherits
+        // session counts left behind by its previous run
+        nodeId = configuredNodeId.isBlank()
+                ? UUID.randomUUID().toString()
+                : configuredNodeId + "-" + UUID.randomUUID().toString().substring(0, 8);
+        running = true;
+        heartbeat();
+        log.info("Registered WebSocket node {}", nodeId);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        heartbeat();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            redisTemplate.opsForHash().delete(NODES_KEY, nodeId);
+        } catch (RuntimeException e) {
+            // Includes a connection factory that is already shutting down
+            log.warn("Could not deregister node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.cluster.heartbeat-ms:10000}")
+    public void heartbeat() {
+        // A late tick must not re-register a node that has left
+        if (!running) return;
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.opsForHash().put(NODES_KEY, nodeId, String.valueOf(now));
+
+            Set<String> alive = new HashSet<>();
+            for (Map.Entry<Object, Object> e : redisTemplate.opsForHash()
+                    .entries(NODES_KEY).entrySet()) {
+                long lastSeen = Long.parseLong((String) e.getValue());
+                if (now - lastSeen < nodeTimeoutMs) {
+                    alive.add((String) e.getKey());
+                } else if (now - lastSeen > nodeTimeoutMs * 10) {
+                    // Long dead — drop it so the hash does not grow forever
+                    redisTemplate.opsForHash().delete(NODES_KEY, e.getKey());
+                }
+            }
+            aliveNodes = alive;
+        } catch (DataAccessException e) {
+            log.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isAlive(String otherNodeId) {
+        return aliveNodes.contains(otherNodeId);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bokbok.meow.websocket.cluster;
+
+import com.bokbok.meow.websocket.PayloadFormats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+// Receives messages other nodes relayed to this one and hands them to
+// the local broker, which resolves the user's sessions here
+@Component
+@ConditionalOnProperty(name = "chat.cluster.enabled", havingValue = "true")
+@Slf4j
+public class ClusterRelayListener implements MessageListener {
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterNode clusterNode;
+    private final JsonMapper jsonMapper;
+    private final PayloadFormats payloadFormats;
+    private final Counter received;
+
+    public ClusterRelayListener(RedisMessageListenerContainer listenerContainer,
+                                SimpMessagingTemplate messagingTemplate,
+                                ClusterNode clusterNode,
+                                JsonMapper jsonMapper,
+                                PayloadFormats payloadFormats,
+                                MeterRegistry meterRegistry) {
+        this.listenerContainer = listenerContainer;
+        this.messagingTemplate = messagingTemplate;
+        this.clusterNode = clusterNode;
+        this.jsonMapper = jsonMapper;
+        this.payloadFormats = payloadFormats;
+        this.received = Counter.builder("chat.cluster.relay.received")
+                .description("User messages delivered on behalf of other nodes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(
+                ClusterRoutingInterceptor.RELAY_CHANNEL + clusterNode.getNodeId()));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            RelayedMessage relayed = jsonMapper.readValue(
+                    message.getBody(), RelayedMessage.class);
+
+            SimpMessageHeaderAccessor headers =
+                    SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            if (relayed.contentType() != null) {
+                MimeType contentType = MimeType.valueOf(relayed.contentType());
+                headers.setContentType(contentType);
+                // CBOR body for this node's sessions, transcoded at most once
+                if (MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                    headers.setHeader(PayloadFormats.CBOR_BODY_HEADER,
+                            payloadFormats.cborBodyOfJson(relayed.payload(), jsonMapper));
+                }
+            }
+            // Marks it as already routed so it is not relayed back out
+            headers.setHeader(ClusterRoutingInterceptor.RELAYED_HEADER, true);
+            headers.setLeaveMutable(true);
+
+            messagingTemplate.send(relayed.destination(),
+                    MessageBuilder.createMessage(relayed.payload(),
+                            headers.getMessageHeaders()));
+            received.increment();
+        } catch (Exception e) {
+            log.error("Dropping relayed message: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bokbok.meow.websocket.cluster;
+
+import com.bokbok.meow.websocket.SessionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+// Sits on the broker channel. Every /user/{id}/... message is also
+// published to each other live node that holds a session for that user;
+// local delivery continues through the simple broker as before.
+@Component
+@ConditionalOnProperty(name = "chat.cluster.enabled", havingValue = "true")
+@Slf4j
+public class ClusterRoutingInterceptor implements ChannelInterceptor {
+
+    public static final String RELAY_CHANNEL = "ws:relay:";
+    public static final String RELAYED_HEADER = "clusterRelayed";
+
+    private static final String USER_PREFIX = "/user/";
+
+    private final StringRedisTemplate redisTemplate;
+    private final SessionRegistry sessionRegistry;
+    private final JsonMapper jsonMapper;
+    private final Counter relayed;
+    private final Counter relayFailures;
+
+    public ClusterRoutingInterceptor(StringRedisTemplate redisTemplate,
+                                     SessionRegistry sessionRegistry,
+                                     JsonMapper jsonMapper,
+                                     MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.sessionRegistry = sessionRegistry;
+        this.jsonMapper = jsonMapper;
+        this.relayed = Counter.builder("chat.cluster.relay.sent")
+                .description("User messages published to other nodes")
+                .register(meterRegistry);
+        this.relayFailures = Counter.builder("chat.cluster.relay.failures")
+                .description("User messages that could not be relayed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+
+        if (destination == null
+                || !destination.startsWith(USER_PREFIX)
+                || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || headers.containsKey(RELAYED_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        int end = destination.indexOf('/', USER_PREFIX.length());
+        if (end < 0) return message;
+        String userId = destination.substring(USER_PREFIX.length(), end)
+                .replace("%2F", "/");
+
+        try {
+            List<String> nodes = sessionRegistry.remoteNodesFor(userId);
+            if (nodes.isEmpty()) return message;
+
+            MimeType contentType = headers.get(MessageHeaders.CONTENT_TYPE, MimeType.class);
+            String envelope = jsonMapper.writeValueAsString(new RelayedMessage(
+                    destination,
+                    contentType != null ? contentType.toString() : null,
+                    payload
+            ));
+            for (String node : nodes) {
+                redisTemplate.convertAndSend(RELAY_CHANNEL + node, envelope);
+                relayed.increment();
+            }
+        } catch (DataAccessException e) {
+            relayFailures.increment();
+            log.warn("Cluster relay failed for {}: {}", userId, e.getMessage());
+        }
+
+        // Always continue locally — returning null would make the
+        // messaging template throw for users that are only remote
+        return message;
+    }
+}
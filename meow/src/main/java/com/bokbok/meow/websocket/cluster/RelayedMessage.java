@@ -0,0 +1,9 @@
+package com.bokbok.meow.websocket.cluster;
+
+// Envelope published to another node's relay channel.
+// The payload is already-encoded bytes (base64 in JSON).
+public record RelayedMessage(
+        String destination,
+        String contentType,
+        byte[] payload
+) {}
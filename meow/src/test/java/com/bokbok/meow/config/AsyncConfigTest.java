@@ -0,0 +1,121 @@
+package com.bokbok.meow.config;
+
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import com.bokbok.meow.modules.chat.event.MessageSentEvent;
+import com.bokbok.meow.modules.chat.repository.ConversationRepository;
+import com.bokbok.meow.modules.chat.service.InboxService;
+import com.bokbok.meow.modules.chat.service.MessageSentListener;
+import com.bokbok.meow.modules.notification.service.NotificationService;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.websocket.PresenceService;
+import com.bokbok.meow.websocket.UserMessageSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
+
+@SpringJUnitConfig(AsyncConfigTest.TestConfig.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "chat.side-effects.core-size=1",
+        "chat.side-effects.max-size=1",
+        "chat.side-effects.queue-capacity=2",
+        "chat.side-effects.overflow-capacity=5"
+})
+class AsyncConfigTest {
+
+    @Configuration
+    @Import({AsyncConfig.class, VirtualThreads.class, MessageSentListener.class})
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean private UserMessageSender userMessageSender;
+    @MockitoBean private NotificationService notificationService;
+    @MockitoBean private PresenceService presenceService;
+    @MockitoBean private InboxService inboxService;
+    @MockitoBean private ConversationRepository conversationRepository;
+
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void saturatedSideEffectPoolNeverStallsTheSender() {
+        // Every push hangs, as it would behind a stuck WebSocket session
+        doAnswer(inv -> release.await(10, TimeUnit.SECONDS))
+                .when(userMessageSender).sendToUsers(anyList(), anyString(), any());
+
+        // 1 running + 2 queued; the rest go to the overflow thread
+        long started = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            eventPublisher.publishEvent(event());
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(meterRegistry.counter("chat.dispatch.rejected").count()).isEqualTo(17);
+        // Overflow: 1 running + 5 queued, only the pushes of the rest are lost
+        assertThat(meterRegistry.counter("chat.dispatch.dropped").count()).isEqualTo(11);
+    }
+
+    @Test
+    void rejectedSendStillInvalidatesTheInboxAndIsPushedLater() throws InterruptedException {
+        // The pool's pushes hang; the overflow thread's go through
+        CountDownLatch pushed = new CountDownLatch(1);
+        doAnswer(inv -> {
+            if (Thread.currentThread().getName().startsWith("chat-side-effect-overflow-")) {
+                pushed.countDown();
+                return null;
+            }
+            return release.await(10, TimeUnit.SECONDS);
+        }).when(userMessageSender).sendToUsers(anyList(), anyString(), any());
+
+        for (int i = 0; i < 4; i++) {
+            eventPublisher.publishEvent(event());
+        }
+
+        // The fourth is handed to a DB rebuild instead of the hung pool
+        verify(inboxService).invalidateLater("alice", "bob");
+        assertThat(pushed.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(inboxService, atMost(1)).onMessage(any(), any(), any(), any(), any());
+    }
+
+    private static MessageSentEvent event() {
+        User alice = User.builder().id("alice").name("Alice").build();
+        User bob = User.builder().id("bob").name("Bob").build();
+        MessageResponse message = MessageResponse.builder()
+                .id("m1").createdAt(LocalDateTime.now()).build();
+        return new MessageSentEvent(message, alice, bob, "c1", "hi");
+    }
+}
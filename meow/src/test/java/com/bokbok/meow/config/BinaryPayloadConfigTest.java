@@ -0,0 +1,180 @@
+package com.bokbok.meow.config;
+
+import com.bokbok.meow.websocket.CborMessageConverter;
+import com.bokbok.meow.websocket.PayloadFormats;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.tomcat.servlet.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.servlet.context.AnnotationConfigServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A real Tomcat /ws endpoint and a raw WebSocket client that negotiates
+// CBOR and decodes what it receives
+class BinaryPayloadConfigTest {
+
+    private AnnotationConfigServletWebServerApplicationContext server;
+    private WebSocketSession client;
+    private final BlockingQueue<WebSocketMessage<?>> received = new LinkedBlockingQueue<>();
+
+    @Configuration
+    @EnableWebSocketMessageBroker
+    @Import({BinaryPayloadConfig.class, PayloadFormats.class})
+    static class ServerConfig implements WebSocketMessageBrokerConfigurer {
+
+        @Bean
+        TomcatServletWebServerFactory webServerFactory() {
+            TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+            factory.addContextCustomizers(context ->
+                    context.addServletContainerInitializer(new WsSci(), null));
+            return factory;
+        }
+
+        @Bean
+        DispatcherServlet dispatcherServlet() {
+            return new DispatcherServlet();
+        }
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+
+        @Override
+        public void registerStompEndpoints(StompEndpointRegistry registry) {
+            registry.addEndpoint("/ws").withSockJS();
+        }
+
+        @Override
+        public void configureMessageBroker(MessageBrokerRegistry registry) {
+            registry.enableSimpleBroker("/topic");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        server = new AnnotationConfigServletWebServerApplicationContext(ServerConfig.class);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) client.close();
+        server.close();
+    }
+
+    @Test
+    void cborSessionReceivesBinaryFrames() throws Exception {
+        int port = server.getWebServer().getPort();
+        client = new StandardWebSocketClient().execute(new AbstractWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                received.add(message);
+            }
+
+            @Override
+            protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+                received.add(message);
+            }
+        }, "ws://localhost:" + port + "/ws/websocket").get(5, TimeUnit.SECONDS);
+
+        client.sendMessage(new TextMessage("CONNECT\naccept-version:1.2\n"
+                + PayloadFormats.HEADER + ":cbor\n\n\0"));
+        Message<byte[]> connected = decode(received.poll(5, TimeUnit.SECONDS));
+        assertThat(StompHeaderAccessor.wrap(connected).getCommand()).isEqualTo(StompCommand.CONNECTED);
+
+        client.sendMessage(new TextMessage("SUBSCRIBE\nid:0\ndestination:/topic/t\n\n\0"));
+
+        // The subscription is registered asynchronously — publish until it lands
+        SimpMessagingTemplate template = server.getBean(SimpMessagingTemplate.class);
+        WebSocketMessage<?> frame = null;
+        for (int i = 0; i < 50 && frame == null; i++) {
+            template.convertAndSend("/topic/t", (Object) Map.of("content", "hi",
+                    "createdAt", LocalDateTime.of(2026, 10, 18, 9, 30)));
+            frame = received.poll(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(frame).isInstanceOf(BinaryMessage.class);
+        Message<byte[]> message = decode(frame);
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(message);
+        assertThat(headers.getCommand()).isEqualTo(StompCommand.MESSAGE);
+        assertThat(headers.getContentType()).isEqualTo(CborMessageConverter.APPLICATION_CBOR);
+        JsonNode body = CBORMapper.builder().build().readTree(message.getPayload());
+        assertThat(body.get("content").asString()).isEqualTo("hi");
+        // Encoded from the object, not transcoded from its JSON frame
+        assertThat(body.get("createdAt").isArray()).isTrue();
+        assertThat(body.get("createdAt").get(0).asInt()).isEqualTo(2026);
+    }
+
+    @Test
+    void cborBodyIsEncodedOnceForEverySession() {
+        PayloadFormats.CborBody body = new PayloadFormats().cborBody(Map.of("content", "hi"));
+
+        assertThat(body.bytes()).isSameAs(body.bytes());
+    }
+
+    @Test
+    void sockJsSessionsStayOnJson() throws Exception {
+        PayloadFormats formats = new PayloadFormats();
+        SockJsSession session = mock(SockJsSession.class);
+        when(session.getId()).thenReturn("sockjs-1");
+
+        formats.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(session);
+        formats.negotiate("sockjs-1", "cbor");
+
+        assertThat(formats.isCbor("sockjs-1")).isFalse();
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private static Message<byte[]> decode(WebSocketMessage<?> frame) {
+        assertThat(frame).isNotNull();
+        byte[] bytes;
+        if (frame instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+        } else {
+            bytes = ((TextMessage) frame).getPayload().getBytes(StandardCharsets.UTF_8);
+        }
+        List<Message<byte[]>> messages = new StompDecoder().decode(ByteBuffer.wrap(bytes));
+        assertThat(messages).hasSize(1);
+        return messages.get(0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bokbok.meow.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// A burst of inbound STOMP frames whose handlers each block on a DB or
+// Redis call (simulated with a sleep), run on the executor the
+// clientInbound channel gets in each mode:
+//   platform — Spring's default channel pool, 2 × CPUs threads
+//   virtual  — VirtualThreads.executor with the configured concurrency limit
+// Virtual mode needs a Java 21+ runtime; on 17 its trials fail at setup.
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp
+//   java -cp target/test-classes:target/classes:$(cat target/test.cp) \
+//        org.openjdk.jmh.Main BlockingExecutorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BlockingExecutorBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"2000"})
+    private int tasks;
+
+    @Param({"5"})
+    private int blockMs;
+
+    private TaskExecutor executor;
+    private ThreadPoolTaskExecutor pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(mode)) {
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException("Virtual mode needs Java 21+");
+            }
+            executor = new VirtualThreads(new StandardEnvironment())
+                    .executor("bench-inbound-", 2000);
+        } else {
+            // Same defaults as Spring's ChannelRegistration.getTaskExecutor
+            pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+            pool.setAllowCoreThreadTimeOut(true);
+            pool.setThreadNamePrefix("bench-inbound-");
+            pool.initialize();
+            executor = pool;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    // One invocation = the whole burst, until every handler has returned
+    @Benchmark
+    public void burstOfBlockingHandlers() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
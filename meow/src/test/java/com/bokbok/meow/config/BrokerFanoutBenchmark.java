@@ -0,0 +1,198 @@
+package com.bokbok.meow.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.TcpClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Delivers one message to every connected session's queue, the shape of
+// chat traffic after user destinations are resolved, through the simple
+// broker and through the STOMP relay. Counts frames reaching the client
+// outbound channel, so WebSocket I/O itself is not included.
+//
+// Relay mode needs a STOMP broker on bench.relay.host:bench.relay.port
+// (default localhost:61613), e.g. the embedded Artemis:
+//   CHAT_BROKER_MODE=relay CHAT_BROKER_EMBEDDED=true mvn -P embedded-broker spring-boot:run
+// then:
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp
+//   java -cp target/test-classes:target/classes:$(cat target/test.cp) \
+//        org.openjdk.jmh.Main BrokerFanoutBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BrokerFanoutBenchmark {
+
+    private static final String SYSTEM_SESSION = "_system_";
+
+    @Param({"simple", "relay"})
+    private String mode;
+
+    @Param({"100", "1000", "10000"})
+    private int sessions;
+
+    // Simple broker's destination → subscriptions cache; WebSocketConfig
+    // sets it from chat.broker.subscription-cache-limit
+    @Param({"65536"})
+    private int cacheLimit;
+
+    private AbstractBrokerMessageHandler broker;
+    private ScheduledExecutorService keepAlive;
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger receipts = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(this::onOutbound);
+
+        List<String> prefixes = List.of("/topic", "/queue");
+        if ("relay".equals(mode)) {
+            StompBrokerRelayMessageHandler relay = new StompBrokerRelayMessageHandler(
+                    clientInbound, clientOutbound, brokerChannel, prefixes);
+            // Sized like WebSocketConfig's pool: one connection per session
+            ConnectionProvider pool = ConnectionProvider.builder("bench-relay")
+                    .maxConnections(sessions + 1)
+                    .build();
+            TcpClient tcpClient = TcpClient.create(pool)
+                    .host(System.getProperty("bench.relay.host", "localhost"))
+                    .port(Integer.getInteger("bench.relay.port", 61613));
+            relay.setTcpClient(new ReactorNettyTcpClient<>(tcpClient, new StompReactorNettyCodec()));
+            broker = relay;
+        } else {
+            SimpleBrokerMessageHandler simple = new SimpleBrokerMessageHandler(
+                    clientInbound, clientOutbound, brokerChannel, prefixes);
+            simple.setCacheLimit(cacheLimit);
+            broker = simple;
+        }
+        broker.start();
+        awaitTrue(broker::isBrokerAvailable, "broker available");
+
+        for (int i = 0; i < sessions; i++) {
+            StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+            connect.setSessionId("s" + i);
+            connect.setAcceptVersion("1.2");
+            connect.setHeartbeat(0, 0);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0],
+                    connect.getMessageHeaders()));
+        }
+        awaitTrue(() -> connected.get() >= sessions, "sessions connected");
+
+        boolean relay = "relay".equals(mode);
+        for (int i = 0; i < sessions; i++) {
+            StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            subscribe.setSessionId("s" + i);
+            subscribe.setSubscriptionId("sub" + i);
+            subscribe.setDestination(queueOf(i));
+            // Subscriptions are asynchronous on the relay — wait for the
+            // broker to confirm each one
+            if (relay) subscribe.setReceipt("r" + i);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0],
+                    subscribe.getMessageHeaders()));
+        }
+        if (relay) {
+            awaitTrue(() -> receipts.get() >= sessions, "subscriptions");
+            // Stand in for the clients' heartbeats: the broker drops relay
+            // connections that stay silent past its TTL (60s on Artemis),
+            // which the larger trials outlast
+            keepAlive = Executors.newSingleThreadScheduledExecutor();
+            keepAlive.scheduleWithFixedDelay(this::heartbeatAll, 20, 20, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (keepAlive != null) keepAlive.shutdownNow();
+        broker.stop();
+    }
+
+    // One invocation = one message to each session, until all are delivered
+    @Benchmark
+    public void deliverToEverySession() throws InterruptedException {
+        int target = delivered.get() + sessions;
+        byte[] payload = "{\"content\":\"hello\"}".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < sessions; i++) {
+            SimpMessageHeaderAccessor headers =
+                    SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setDestination(queueOf(i));
+            headers.setSessionId(SYSTEM_SESSION);
+            broker.handleMessage(MessageBuilder.createMessage(payload,
+                    headers.getMessageHeaders()));
+        }
+        awaitTrue(() -> delivered.get() >= target, "deliveries");
+    }
+
+    private void onOutbound(Message<?> message) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT_ACK) {
+            connected.incrementAndGet();
+        } else if (type == SimpMessageType.MESSAGE) {
+            delivered.incrementAndGet();
+        } else {
+            StompCommand command = StompHeaderAccessor.wrap(message).getCommand();
+            if (command == StompCommand.CONNECTED) connected.incrementAndGet();
+            else if (command == StompCommand.RECEIPT) receipts.incrementAndGet();
+            else if (command == StompCommand.MESSAGE) delivered.incrementAndGet();
+        }
+    }
+
+    private void heartbeatAll() {
+        for (int i = 0; i < sessions; i++) {
+            StompHeaderAccessor heartbeat = StompHeaderAccessor.createForHeartbeat();
+            heartbeat.setSessionId("s" + i);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0],
+                    heartbeat.getMessageHeaders()));
+        }
+    }
+
+    private static String queueOf(int session) {
+        return "/queue/bench-user-s" + session;
+    }
+
+    private static void awaitTrue(java.util.function.BooleanSupplier condition, String what)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + what);
+            }
+            Thread.onSpinWait();
+            TimeUnit.MICROSECONDS.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bokbok.meow.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+class VirtualThreadsTest {
+
+    private static final int JAVA = Runtime.version().feature();
+
+    @Test
+    void offUnlessRequested() {
+        assertThat(new VirtualThreads(new MockEnvironment()).isEnabled()).isFalse();
+    }
+
+    @Test
+    void requestIsIgnoredBeforeJava21() {
+        assumeThat(JAVA).isLessThan(21);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true");
+
+        assertThat(new VirtualThreads(environment).isEnabled()).isFalse();
+    }
+
+    @Test
+    void requestIsHonouredOnJava21() throws Exception {
+        assumeThat(JAVA).isGreaterThanOrEqualTo(21);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true");
+        VirtualThreads virtualThreads = new VirtualThreads(environment);
+        assertThat(virtualThreads.isEnabled()).isTrue();
+
+        SimpleAsyncTaskExecutor executor = virtualThreads.executor("test-", 2);
+        assertThat(executor.getConcurrencyLimit()).isEqualTo(2);
+        CompletableFuture<Thread> ran = new CompletableFuture<>();
+        executor.execute(() -> ran.complete(Thread.currentThread()));
+        assertThat(ran.get().toString()).contains("VirtualThread");
+    }
+}
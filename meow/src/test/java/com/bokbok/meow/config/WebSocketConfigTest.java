@@ -0,0 +1,58 @@
+package com.bokbok.meow.config;
+
+import com.bokbok.meow.security.JwtUtil;
+import com.bokbok.meow.websocket.DeflateHandshakeHandler;
+import com.bokbok.meow.websocket.TransportMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class WebSocketConfigTest {
+
+    private AnnotationConfigWebApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    // Either channel's executor may run two frames of one session on
+    // different threads; neither may reorder them
+    @Test
+    void framesOfOneSessionKeepTheirOrder() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        // Virtual mode on Java 21+: a thread per frame on both channels
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("spring.threads.virtual.enabled", "true")));
+        // Singletons, so the mocks skip @Value injection
+        context.addBeanFactoryPostProcessor(beanFactory -> {
+            beanFactory.registerSingleton("jwtUtil", mock(JwtUtil.class));
+            beanFactory.registerSingleton("handshakeHandler", mock(DeflateHandshakeHandler.class));
+            beanFactory.registerSingleton("transportMetrics",
+                    new TransportMetrics(new SimpleMeterRegistry(), 100));
+        });
+        context.register(WebSocketConfig.class, VirtualThreads.class);
+        context.refresh();
+
+        assertThat(context.getBean(SimpleBrokerMessageHandler.class).isPreservePublishOrder())
+                .isTrue();
+        SubProtocolWebSocketHandler webSocketHandler =
+                context.getBean(SubProtocolWebSocketHandler.class);
+        assertThat(webSocketHandler.getProtocolHandlers())
+                .singleElement()
+                .isInstanceOfSatisfying(StompSubProtocolHandler.class, stomp ->
+                        assertThat(stomp.isPreserveReceiveOrder()).isTrue());
+    }
+}
@@ -0,0 +1,77 @@
+package com.bokbok.meow.modules.chat.controller;
+
+import com.bokbok.meow.config.SecurityConfig;
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import com.bokbok.meow.modules.chat.service.ChatService;
+import com.bokbok.meow.security.JwtUtil;
+import com.bokbok.meow.security.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChatController.class)
+@Import(SecurityConfig.class)
+class ChatControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private ChatService chatService;
+    @MockitoBean private JwtUtil jwtUtil;
+    @MockitoBean private UserDetailsServiceImpl userDetailsService;
+
+    private static final String BODY = "{\"receiverId\":\"bob\",\"type\":\"TEXT\",\"content\":\"hi\"}";
+
+    @Test
+    void sendIsAnsweredOnceTheWriteCompletes() throws Exception {
+        when(jwtUtil.validateAndGetUserId("token")).thenReturn("alice");
+        CompletableFuture<MessageResponse> written = new CompletableFuture<>();
+        when(chatService.sendMessage(eq("alice"), any())).thenReturn(written);
+
+        // The request thread is released while the batch is still flushing
+        MvcResult pending = mockMvc.perform(post("/api/chat/send")
+                        .header("Authorization", "Bearer token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        written.complete(MessageResponse.builder().id("m1").build());
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("m1"));
+    }
+
+    @Test
+    void failedWriteIsReportedAsAnError() throws Exception {
+        when(jwtUtil.validateAndGetUserId("token")).thenReturn("alice");
+        when(chatService.sendMessage(eq("alice"), any())).thenReturn(CompletableFuture.failedFuture(
+                new RuntimeException("Message is still being saved, please retry")));
+
+        MvcResult pending = mockMvc.perform(post("/api/chat/send")
+                        .header("Authorization", "Bearer token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Message is still being saved, please retry"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.bokbok.meow.modules.chat.controller;
+
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import com.bokbok.meow.modules.chat.dto.SendMessageRequest;
+import com.bokbok.meow.modules.chat.service.ChatService;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
+
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketControllerTest {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final WebSocketController controller =
+            new WebSocketController(chatService, mock(SimpMessagingTemplate.class));
+    private final Principal alice = () -> "alice";
+    private final SendMessageRequest request = new SendMessageRequest();
+
+    @Test
+    void replayedSendIsReturnedToTheSendingSession() throws Exception {
+        MessageResponse original = MessageResponse.builder().id("original").build();
+        when(chatService.send("alice", request))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new ChatService.SendResult(original, true)));
+
+        assertThat(controller.sendMessage(request, alice).join()).isSameAs(original);
+
+        SendToUser sendToUser = WebSocketController.class
+                .getMethod("sendMessage", SendMessageRequest.class, Principal.class)
+                .getAnnotation(SendToUser.class);
+        assertThat(sendToUser.destinations()).containsExactly("/queue/messages");
+        assertThat(sendToUser.broadcast()).isFalse();
+    }
+
+    @Test
+    void freshSendIsLeftToTheListener() {
+        when(chatService.send("alice", request)).thenReturn(CompletableFuture.completedFuture(
+                new ChatService.SendResult(MessageResponse.builder().id("new").build(), false)));
+
+        assertThat(controller.sendMessage(request, alice).join()).isNull();
+    }
+}
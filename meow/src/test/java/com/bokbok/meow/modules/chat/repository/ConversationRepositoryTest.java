@@ -0,0 +1,176 @@
+package com.bokbok.meow.modules.chat.repository;
+
+import com.bokbok.meow.modules.chat.dto.ConversationResponse;
+import com.bokbok.meow.modules.chat.entity.Conversation;
+import com.bokbok.meow.modules.chat.entity.Message;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ConversationRepositoryTest {
+
+    @Autowired private ConversationRepository conversationRepository;
+    @Autowired private MessageRepository messageRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private User alice;
+    private User bob;
+    private Conversation conversation;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("+1", "Alice");
+        bob = user("+2", "Bob");
+        conversation = conversationRepository.save(Conversation.builder()
+                .user1(alice).user2(bob).user1UnreadCount(4).build());
+    }
+
+    // ── Read watermark ──────────────────────────────────────────
+
+    @Test
+    void advancingTheWatermarkRecountsUnreadAfterIt() {
+        // Bob wrote at T0..T3, Alice's own message at T4 never counts
+        for (int i = 0; i < 4; i++) message(conversation, bob, T0.plusSeconds(i));
+        message(conversation, alice, T0.plusSeconds(4));
+
+        int updated = conversationRepository.advanceReadWatermark(
+                conversation.getId(), alice.getId(), T0.plusSeconds(1));
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(conversationRepository.findUnreadCount(conversation.getId(), alice.getId()))
+                .isEqualTo(2);
+        Conversation stored = conversationRepository.findById(conversation.getId()).orElseThrow();
+        assertThat(stored.getUser1ReadUpTo()).isEqualTo(T0.plusSeconds(1));
+        assertThat(stored.getUser2ReadUpTo()).isNull();
+    }
+
+    @Test
+    void watermarkNeverMovesBackwards() {
+        for (int i = 0; i < 4; i++) message(conversation, bob, T0.plusSeconds(i));
+        conversationRepository.advanceReadWatermark(
+                conversation.getId(), alice.getId(), T0.plusSeconds(3));
+
+        int updated = conversationRepository.advanceReadWatermark(
+                conversation.getId(), alice.getId(), T0);
+        entityManager.clear();
+
+        assertThat(updated).isZero();
+        assertThat(conversationRepository.findUnreadCount(conversation.getId(), alice.getId()))
+                .isZero();
+    }
+
+    @Test
+    void outsidersCannotMoveTheWatermark() {
+        User mallory = user("+3", "Mallory");
+
+        int updated = conversationRepository.advanceReadWatermark(
+                conversation.getId(), mallory.getId(), T0);
+
+        assertThat(updated).isZero();
+    }
+
+    // ── Chat list ───────────────────────────────────────────────
+
+    @Test
+    void summariesPageThroughEveryChatOnceNewestFirst() {
+        User carol = user("+4", "Carol");
+        User dave = user("+5", "Dave");
+        // alice is user2 here, so her counter is user2UnreadCount
+        Conversation withCarol = conversationRepository.save(Conversation.builder()
+                .user1(carol).user2(alice).user2UnreadCount(7).build());
+        Conversation withDave = conversationRepository.save(Conversation.builder()
+                .user1(alice).user2(dave).build());
+        conversationRepository.save(Conversation.builder()
+                .user1(alice).user2(user("+6", "Erin")).build());  // no messages yet
+
+        // Two chats share a timestamp, so the id tie-break decides
+        lastMessageAt(conversation, T0.plusSeconds(1));
+        lastMessageAt(withCarol, T0.plusSeconds(2));
+        lastMessageAt(withDave, T0.plusSeconds(1));
+
+        List<ConversationResponse> seen = new ArrayList<>();
+        Slice<ConversationResponse> page = conversationRepository
+                .findLatestSummaries(alice.getId(), PageRequest.of(0, 2));
+        while (true) {
+            seen.addAll(page.getContent());
+            if (!page.hasNext()) break;
+            ConversationResponse last = page.getContent().get(page.getNumberOfElements() - 1);
+            page = conversationRepository.findSummariesBefore(alice.getId(),
+                    last.getLastMessageAt(), last.getId(), PageRequest.of(0, 2));
+        }
+
+        String tieFirst = conversation.getId().compareTo(withDave.getId()) > 0 ? "Bob" : "Dave";
+        String tieSecond = tieFirst.equals("Bob") ? "Dave" : "Bob";
+        assertThat(seen).extracting(ConversationResponse::getOtherUserName)
+                .containsExactly("Carol", tieFirst, tieSecond);
+        assertThat(seen.get(0).getUnreadCount()).isEqualTo(7);
+        assertThat(seen.get(0).getOtherUserId()).isEqualTo(carol.getId());
+        assertThat(seen).filteredOn(c -> c.getId().equals(conversation.getId()))
+                .singleElement()
+                .satisfies(c -> assertThat(c.getUnreadCount()).isEqualTo(4));
+    }
+
+    @Test
+    void summariesOnlyListTheCallersChats() {
+        User carol = user("+4", "Carol");
+        conversationRepository.save(Conversation.builder().user1(bob).user2(carol).build());
+
+        assertThat(conversationRepository.findSummariesByUserId(alice.getId()))
+                .extracting(ConversationResponse::getOtherUserName)
+                .containsExactly("Bob");
+    }
+
+    // ── Contacts ────────────────────────────────────────────────
+
+    @Test
+    void partnersAreTheOtherSideOfEveryChat() {
+        User carol = user("+4", "Carol");
+        User dave = user("+5", "Dave");
+        conversationRepository.save(Conversation.builder().user1(carol).user2(bob).build());
+        conversationRepository.save(Conversation.builder().user1(carol).user2(dave).build());
+
+        assertThat(conversationRepository.findPartnerIds(bob.getId()))
+                .containsExactlyInAnyOrder(alice.getId(), carol.getId());
+        assertThat(conversationRepository.findPartnerIds(dave.getId()))
+                .containsExactly(carol.getId());
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private User user(String phone, String name) {
+        return userRepository.save(User.builder().phone(phone).name(name).password("x").build());
+    }
+
+    private void lastMessageAt(Conversation c, LocalDateTime at) {
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE conversations SET last_message_at = ?, " +
+                "last_message_preview = 'hi' WHERE id = ?", at, c.getId());
+    }
+
+    private void message(Conversation c, User sender, LocalDateTime at) {
+        Message m = messageRepository.save(Message.builder().conversation(c).sender(sender)
+                .type(Message.MessageType.TEXT).content("hi").build());
+        entityManager.flush();
+        // createdAt is a @CreationTimestamp — pin it after the insert
+        jdbcTemplate.update("UPDATE messages SET created_at = ? WHERE id = ?", at, m.getId());
+    }
+}
@@ -0,0 +1,106 @@
+package com.bokbok.meow.modules.chat.repository;
+
+import com.bokbok.meow.modules.chat.entity.Conversation;
+import com.bokbok.meow.modules.chat.entity.Message;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class MessageRepositoryTest {
+
+    @Autowired private MessageRepository messageRepository;
+    @Autowired private ConversationRepository conversationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private Conversation conversation;
+    private User alice;
+    // Oldest first
+    private final List<Message> history = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().phone("+1").name("Alice").password("x").build());
+        User bob = userRepository.save(User.builder().phone("+2").name("Bob").password("x").build());
+        conversation = conversationRepository.save(
+                Conversation.builder().user1(alice).user2(bob).build());
+
+        // Pairs share a timestamp, so only the id tie-break keeps pages apart
+        for (int i = 0; i < 7; i++) {
+            Message m = messageRepository.save(Message.builder()
+                    .conversation(conversation).sender(i % 2 == 0 ? alice : bob)
+                    .type(Message.MessageType.TEXT).content("m" + i).build());
+            history.add(m);
+        }
+        entityManager.flush();
+        for (int i = 0; i < history.size(); i++) {
+            LocalDateTime at = T0.plusSeconds(i / 2);
+            jdbcTemplate.update("UPDATE messages SET created_at = ? WHERE id = ?",
+                    at, history.get(i).getId());
+            history.get(i).setCreatedAt(at);
+        }
+        entityManager.clear();
+        history.sort(Comparator.comparing(Message::getCreatedAt).thenComparing(Message::getId));
+    }
+
+    @Test
+    void backwardPagesCoverHistoryOnceNewestFirst() {
+        List<String> seen = new ArrayList<>();
+        Slice<Message> page = messageRepository.findLatest(conversation.getId(), PageRequest.of(0, 2));
+        while (true) {
+            page.forEach(m -> seen.add(m.getId()));
+            if (!page.hasNext()) break;
+            Message last = page.getContent().get(page.getNumberOfElements() - 1);
+            page = messageRepository.findBefore(conversation.getId(),
+                    last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+        }
+
+        List<String> newestFirst = new ArrayList<>(ids(history));
+        Collections.reverse(newestFirst);
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void forwardPageStartsStrictlyAfterTheCursor() {
+        Message cursor = history.get(2);  // shares its timestamp with history[3]
+
+        Slice<Message> page = messageRepository.findAfter(conversation.getId(),
+                cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, 3));
+
+        assertThat(ids(page.getContent())).containsExactlyElementsOf(ids(history.subList(3, 6)));
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void deletedMessagesAreSkipped() {
+        jdbcTemplate.update("UPDATE messages SET is_deleted = true WHERE id = ?",
+                history.get(6).getId());
+
+        Slice<Message> page = messageRepository.findLatest(conversation.getId(), PageRequest.of(0, 1));
+
+        assertThat(page.getContent().get(0).getId()).isEqualTo(history.get(5).getId());
+    }
+
+    private static List<String> ids(List<Message> messages) {
+        return messages.stream().map(Message::getId).toList();
+    }
+}
@@ -0,0 +1,241 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.dto.ConversationResponse;
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import com.bokbok.meow.modules.chat.dto.MessageStatusUpdate;
+import com.bokbok.meow.modules.chat.dto.SendMessageRequest;
+import com.bokbok.meow.modules.chat.entity.Conversation;
+import com.bokbok.meow.modules.chat.entity.Message;
+import com.bokbok.meow.modules.chat.event.MessageSentEvent;
+import com.bokbok.meow.modules.chat.repository.ConversationRepository;
+import com.bokbok.meow.modules.chat.repository.MessageRepository;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.modules.user.repository.UserRepository;
+import com.bokbok.meow.websocket.PresenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ChatServiceTest {
+
+    @Mock private ConversationRepository conversationRepository;
+    @Mock private MessageRepository messageRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private SimpMessagingTemplate messagingTemplate;
+    @Mock private PresenceService presenceService;
+    @Mock private MessageWriteBehindQueue writeBehindQueue;
+    @Mock private InboxService inboxService;
+    @Mock private ConversationPairCache conversationPairCache;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private MessageDedupService messageDedupService;
+    @Mock private ContactGraph contactGraph;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private Executor ackExecutor;
+
+    @InjectMocks
+    private ChatService chatService;
+
+    private final CompletableFuture<String> written = new CompletableFuture<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userRepository.findById("alice")).thenReturn(Optional.of(user("alice")));
+        when(userRepository.findById("bob")).thenReturn(Optional.of(user("bob")));
+        when(conversationPairCache.get("alice", "bob")).thenReturn("c1");
+        when(conversationRepository.getReferenceById("c1"))
+                .thenReturn(Conversation.builder().id("c1").build());
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.enqueueAfterCommit(any(), anyString())).thenReturn(written);
+        when(writeBehindQueue.ack(written)).thenReturn(written);
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(ackExecutor).execute(any());
+        when(messageDedupService.claim("alice", "retry-1"))
+                .thenReturn(MessageDedupService.Claim.CLAIMED);
+    }
+
+    @Test
+    void queuedSendIsAckedAndPushedOnlyOnceTheBatchCommits() {
+        ArgumentCaptor<Message> queued = ArgumentCaptor.forClass(Message.class);
+
+        CompletableFuture<MessageResponse> response =
+                chatService.sendMessage("alice", request("retry-1"));
+
+        // Returned without waiting for the flusher, and nothing went out yet
+        assertThat(response).isNotDone();
+        verifyNoInteractions(eventPublisher);
+        verify(messageDedupService, never()).complete(any(), any(), any());
+
+        verify(writeBehindQueue).enqueueAfterCommit(queued.capture(), anyString());
+        written.complete(queued.getValue().getId());
+
+        assertThat(response.join().getId()).isEqualTo(queued.getValue().getId());
+        verify(eventPublisher).publishEvent(any(MessageSentEvent.class));
+        verify(messageDedupService).complete("alice", "retry-1", response.join());
+    }
+
+    @Test
+    void failedAckIsReturnedToTheSender() {
+        when(writeBehindQueue.ack(written)).thenReturn(CompletableFuture.failedFuture(
+                new RuntimeException("Message is still being saved, please retry")));
+
+        assertThatThrownBy(() -> chatService.send("alice", request("retry-1")).join())
+                .hasRootCauseMessage("Message is still being saved, please retry");
+        verify(messageDedupService, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void duplicateCaughtByTheFlusherIsAnsweredWithTheOriginal() {
+        // The claim expired, so only the stored row knows the original
+        written.complete("original");
+        storedOriginal();
+
+        ChatService.SendResult result = chatService.send("alice", request("retry-1")).join();
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.message().getId()).isEqualTo("original");
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(messageDedupService, never()).complete(eq("alice"), eq("retry-1"), any());
+    }
+
+    @Test
+    void retryWhileTheOriginalIsInTheDedupWindowIsReplayed() {
+        MessageResponse original = MessageResponse.builder().id("original").build();
+        when(messageDedupService.claim("alice", "retry-1"))
+                .thenReturn(MessageDedupService.Claim.IN_FLIGHT);
+        when(messageDedupService.findReplay("alice", "retry-1"))
+                .thenReturn(Optional.of(original));
+
+        ChatService.SendResult result = chatService.send("alice", request("retry-1")).join();
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.message()).isSameAs(original);
+        verify(writeBehindQueue, never()).enqueueAfterCommit(any(), anyString());
+        verify(messageRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void directWriteOfASlippedDuplicateReturnsTheStoredRow() {
+        when(writeBehindQueue.isEnabled()).thenReturn(false);
+        when(conversationRepository.recordMessage(eq("c1"), eq("alice"), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("uk_messages_sender_client_id"));
+        storedOriginal();
+
+        ChatService.SendResult result = chatService.send("alice", request("retry-1")).join();
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.message().getId()).isEqualTo("original");
+    }
+
+    @Test
+    void reconnectSendsOneDeliveredFramePerSenderAndConversation() {
+        when(messageRepository.markDelivered(eq("alice"), any())).thenReturn(List.of(
+                delivered("m1", "c1", "bob"),
+                delivered("m2", "c2", "carol"),
+                delivered("m3", "c1", "bob")));
+
+        chatService.markDelivered("alice");
+
+        ArgumentCaptor<Object> toBob = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("bob"),
+                eq("/queue/message-status"), toBob.capture());
+        MessageStatusUpdate update = (MessageStatusUpdate) toBob.getValue();
+        assertThat(update.getConversationId()).isEqualTo("c1");
+        assertThat(update.getMessageIds()).containsExactly("m1", "m3");
+        assertThat(update.getStatus()).isEqualTo("DELIVERED");
+        verify(messagingTemplate).convertAndSendToUser(eq("carol"),
+                eq("/queue/message-status"), any(Object.class));
+    }
+
+    @Test
+    void inboxMissRebuildsWithTheVersionReadBeforeTheQueryAndReturnsOnePage() {
+        List<ConversationResponse> all = List.of(
+                ConversationResponse.builder().id("c3").build(),
+                ConversationResponse.builder().id("c2").build(),
+                ConversationResponse.builder().id("c1").build());
+        when(inboxService.getInbox("alice", 1, 2)).thenReturn(null);
+        when(inboxService.version("alice")).thenReturn("7");
+        when(conversationRepository.findSummariesByUserId("alice")).thenReturn(all);
+
+        List<ConversationResponse> page = chatService.getMyConversations("alice", 1, 2);
+
+        assertThat(page).extracting(ConversationResponse::getId).containsExactly("c1");
+        InOrder order = inOrder(inboxService, conversationRepository);
+        order.verify(inboxService).version("alice");
+        order.verify(conversationRepository).findSummariesByUserId("alice");
+        order.verify(inboxService).rebuild("alice", "7", all);
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private void storedOriginal() {
+        when(messageDedupService.findReplay("alice", "retry-1")).thenReturn(Optional.empty());
+        when(messageRepository.findBySenderAndClientMessageId("alice", "retry-1"))
+                .thenReturn(Optional.of(Message.builder()
+                        .id("original")
+                        .conversation(Conversation.builder().id("c1").build())
+                        .sender(user("alice"))
+                        .clientMessageId("retry-1")
+                        .type(Message.MessageType.TEXT)
+                        .content("hello")
+                        .build()));
+    }
+
+    private static SendMessageRequest request(String clientMessageId) {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setReceiverId("bob");
+        request.setType("TEXT");
+        request.setContent("hello");
+        request.setClientMessageId(clientMessageId);
+        return request;
+    }
+
+    private static User user(String id) {
+        return User.builder().id(id).name(id).phone(id).password("x").build();
+    }
+
+    private static MessageRepository.DeliveredMessage delivered(String id,
+                                                                String conversationId,
+                                                                String senderId) {
+        return new MessageRepository.DeliveredMessage() {
+            public String getId() { return id; }
+            public String getConversationId() { return conversationId; }
+            public String getSenderId() { return senderId; }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.repository.ConversationRepository;
+import com.bokbok.meow.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContactGraphTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+    private ContactGraph contacts;
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        contacts = new ContactGraph(redisTemplate, conversationRepository);
+        ReflectionTestUtils.setField(contacts, "ttlHours", 1L);
+        when(conversationRepository.findPartnerIds("alice")).thenReturn(List.of("bob", "carol"));
+        when(conversationRepository.findPartnerIds("dave")).thenReturn(List.of());
+    }
+
+    @Test
+    void firstLookupLoadsFromTheDatabaseThenRedisAnswers() {
+        assertThat(contacts.contactsOf(List.of("alice")))
+                .containsEntry("alice", Set.of("bob", "carol"));
+        assertThat(contacts.contactsOf(List.of("alice")))
+                .containsEntry("alice", Set.of("bob", "carol"));
+
+        verify(conversationRepository, times(1)).findPartnerIds("alice");
+        assertThat(redisTemplate.getExpire("contacts:alice")).isPositive();
+    }
+
+    @Test
+    void userWithoutChatsIsCachedAsEmpty() {
+        Map<String, Set<String>> first = contacts.contactsOf(List.of("dave"));
+        Map<String, Set<String>> second = contacts.contactsOf(List.of("dave"));
+
+        assertThat(first).containsEntry("dave", Set.of());
+        assertThat(second).containsEntry("dave", Set.of());
+        verify(conversationRepository, times(1)).findPartnerIds("dave");
+    }
+
+    @Test
+    void batchMixesCachedAndLoadedUsers() {
+        contacts.contactsOf(List.of("alice"));
+
+        Map<String, Set<String>> both = contacts.contactsOf(List.of("alice", "dave"));
+
+        assertThat(both).containsEntry("alice", Set.of("bob", "carol"))
+                .containsEntry("dave", Set.of());
+        verify(conversationRepository, times(1)).findPartnerIds("alice");
+    }
+
+    @Test
+    void newConversationDropsBothSetsOutsideATransaction() {
+        contacts.contactsOf(List.of("alice", "dave"));
+        when(conversationRepository.findPartnerIds("dave")).thenReturn(List.of("alice"));
+
+        contacts.invalidateAfterCommit("alice", "dave");
+
+        assertThat(redisTemplate.hasKey("contacts:alice")).isFalse();
+        assertThat(contacts.contactsOf(List.of("dave"))).containsEntry("dave", Set.of("alice"));
+    }
+}
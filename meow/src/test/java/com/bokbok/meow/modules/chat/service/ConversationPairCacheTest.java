@@ -0,0 +1,64 @@
+package com.bokbok.meow.modules.chat.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationPairCacheTest {
+
+    private final ConversationPairCache cache = new ConversationPairCache(2);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void pairIsFoundFromEitherSide() {
+        cache.putAfterCommit("bob", "alice", "c1");
+
+        assertThat(cache.get("alice", "bob")).isEqualTo("c1");
+        assertThat(cache.get("bob", "alice")).isEqualTo("c1");
+    }
+
+    @Test
+    void cachedOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.putAfterCommit("alice", "bob", "c1");
+        assertThat(cache.get("alice", "bob")).isNull();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get("alice", "bob")).isEqualTo("c1");
+    }
+
+    @Test
+    void rolledBackInsertIsNeverCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.putAfterCommit("alice", "bob", "c1");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(s ->
+                s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(cache.get("alice", "bob")).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedPairIsEvicted() {
+        cache.putAfterCommit("alice", "bob", "c1");
+        cache.putAfterCommit("alice", "carol", "c2");
+        cache.get("alice", "bob");  // carol's pair is now the eldest
+
+        cache.putAfterCommit("alice", "dave", "c3");
+
+        assertThat(cache.get("alice", "bob")).isEqualTo("c1");
+        assertThat(cache.get("alice", "carol")).isNull();
+        assertThat(cache.get("alice", "dave")).isEqualTo("c3");
+    }
+}
@@ -0,0 +1,207 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.dto.ConversationResponse;
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.support.EmbeddedRedis;
+import com.bokbok.meow.websocket.PresenceService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InboxServiceTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final PresenceService presenceService = mock(PresenceService.class);
+    private InboxService inbox;
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        inbox = new InboxService(redisTemplate, presenceService);
+        ReflectionTestUtils.setField(inbox, "enabled", true);
+        ReflectionTestUtils.setField(inbox, "ttlHours", 1L);
+        when(presenceService.areOnline(anyList())).thenReturn(Map.of("bob", true));
+    }
+
+    @Test
+    void notMaterializedUntilRebuilt() {
+        assertThat(read("alice")).isNull();
+
+        rebuild("alice", List.of());
+
+        assertThat(read("alice")).isEmpty();
+    }
+
+    @Test
+    void rebuiltInboxIsReadBackNewestFirst() {
+        rebuild("alice", List.of(
+                row("c-bob", "bob", "Bob", "old", T0, 2),
+                row("c-carol", "carol", "Carol", "new", T0.plusMinutes(1), 0)));
+
+        List<ConversationResponse> rows = read("alice");
+
+        assertThat(rows).extracting(ConversationResponse::getId)
+                .containsExactly("c-carol", "c-bob");
+        ConversationResponse bob = rows.get(1);
+        assertThat(bob.getOtherUserName()).isEqualTo("Bob");
+        assertThat(bob.getOtherUserStatus()).isEqualTo("ONLINE");
+        assertThat(bob.getLastMessagePreview()).isEqualTo("old");
+        assertThat(bob.getLastMessageAt()).isEqualTo(T0);
+        assertThat(bob.getUnreadCount()).isEqualTo(2);
+        assertThat(rows.get(0).getOtherUserStatus()).isEqualTo("OFFLINE");
+    }
+
+    @Test
+    void sendMovesTheChatUpAndCountsForTheReceiverOnly() {
+        User alice = User.builder().id("alice").name("Alice").build();
+        User bob = User.builder().id("bob").name("Bob").build();
+        rebuild("alice", List.of(
+                row("c-bob", "bob", "Bob", "hi", T0, 0),
+                row("c-carol", "carol", "Carol", "yo", T0.plusMinutes(1), 0)));
+        rebuild("bob", List.of(row("c-bob", "alice", "Alice", "hi", T0, 0)));
+
+        inbox.onMessage("c-bob", alice, bob, "later", T0.plusMinutes(2));
+
+        List<ConversationResponse> aliceRows = read("alice");
+        assertThat(aliceRows).extracting(ConversationResponse::getId)
+                .containsExactly("c-bob", "c-carol");
+        assertThat(aliceRows.get(0).getLastMessagePreview()).isEqualTo("later");
+        assertThat(aliceRows.get(0).getUnreadCount()).isZero();
+        assertThat(read("bob").get(0).getUnreadCount()).isEqualTo(1);
+
+        inbox.setUnreadCount("c-bob", "bob", 0);
+        assertThat(read("bob").get(0).getUnreadCount()).isZero();
+    }
+
+    @Test
+    void changedProfileForcesARebuild() {
+        rebuild("alice", List.of(row("c-bob", "bob", "Bob", "hi", T0, 0)));
+
+        inbox.evictUserCard("bob");
+
+        assertThat(read("alice")).isNull();
+    }
+
+    @Test
+    void deferredInvalidationHidesTheInboxAtOnceAndDropsTheMarkerOnFlush() {
+        rebuild("alice", List.of(row("c-bob", "bob", "Bob", "hi", T0, 0)));
+
+        inbox.invalidateLater("alice");
+
+        assertThat(read("alice")).isNull();
+        assertThat(redisTemplate.hasKey("inbox:ready:alice")).isTrue();
+
+        inbox.flushInvalidations();
+
+        assertThat(redisTemplate.hasKey("inbox:ready:alice")).isFalse();
+        rebuild("alice", List.of(row("c-bob", "bob", "Bob", "hi", T0, 0)));
+        assertThat(read("alice")).hasSize(1);
+    }
+
+    // ── Concurrent writes ───────────────────────────────────────
+
+    @Test
+    void rebuildFromASnapshotTakenBeforeASendIsDropped() {
+        String version = inbox.version("bob");
+        List<ConversationResponse> snapshot = List.of(row("c-bob", "alice", "Alice", "hi", T0, 0));
+
+        // Lands between the DB read and the rebuild
+        inbox.onMessage("c-bob", user("alice"), user("bob"), "newer", T0.plusMinutes(1));
+        inbox.rebuild("bob", version, snapshot);
+
+        assertThat(read("bob")).isNull();
+        assertThat(redisTemplate.opsForHash().get("inbox:conv:c-bob", "preview"))
+                .isEqualTo("newer");
+
+        rebuild("bob", List.of(row("c-bob", "alice", "Alice", "newer", T0.plusMinutes(1), 1)));
+        assertThat(read("bob").get(0).getUnreadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sendAlreadyInTheRebuildIsNotCountedTwice() {
+        // Committed, read by the rebuild, then its side effects run
+        rebuild("bob", List.of(row("c-bob", "alice", "Alice", "hi", T0, 1)));
+
+        inbox.onMessage("c-bob", user("alice"), user("bob"), "hi", T0);
+
+        assertThat(read("bob").get(0).getUnreadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sendsHandledOutOfOrderKeepTheNewestPreviewAndCountBoth() {
+        rebuild("alice", List.of(row("c-bob", "bob", "Bob", "hi", T0, 0)));
+        rebuild("bob", List.of(row("c-bob", "alice", "Alice", "hi", T0, 0)));
+
+        inbox.onMessage("c-bob", user("alice"), user("bob"), "second", T0.plusMinutes(2));
+        inbox.onMessage("c-bob", user("alice"), user("bob"), "first", T0.plusMinutes(1));
+
+        ConversationResponse row = read("bob").get(0);
+        assertThat(row.getLastMessagePreview()).isEqualTo("second");
+        assertThat(row.getLastMessageAt()).isEqualTo(T0.plusMinutes(2));
+        assertThat(row.getUnreadCount()).isEqualTo(2);
+        assertThat(redisTemplate.opsForZSet().score("inbox:alice", "c-bob"))
+                .isEqualTo((double) T0.plusMinutes(2).toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    // ── Paging ──────────────────────────────────────────────────
+
+    @Test
+    void inboxIsReadOnePageAtATime() {
+        rebuild("alice", List.of(
+                row("c-bob", "bob", "Bob", "a", T0, 0),
+                row("c-carol", "carol", "Carol", "b", T0.plusMinutes(1), 0),
+                row("c-dave", "dave", "Dave", "c", T0.plusMinutes(2), 0)));
+
+        assertThat(inbox.getInbox("alice", 0, 2)).extracting(ConversationResponse::getId)
+                .containsExactly("c-dave", "c-carol");
+        assertThat(inbox.getInbox("alice", 1, 2)).extracting(ConversationResponse::getId)
+                .containsExactly("c-bob");
+        assertThat(inbox.getInbox("alice", 2, 2)).isEmpty();
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private List<ConversationResponse> read(String userId) {
+        return inbox.getInbox(userId, 0, 50);
+    }
+
+    private void rebuild(String userId, List<ConversationResponse> rows) {
+        inbox.rebuild(userId, inbox.version(userId), rows);
+    }
+
+    private static User user(String id) {
+        return User.builder().id(id).name(id).build();
+    }
+
+    private static ConversationResponse row(String id, String otherUserId, String otherName,
+                                            String preview, LocalDateTime at, int unread) {
+        return ConversationResponse.builder()
+                .id(id)
+                .otherUserId(otherUserId)
+                .otherUserName(otherName)
+                .lastMessagePreview(preview)
+                .lastMessageAt(at)
+                .unreadCount(unread)
+                .build();
+    }
+}
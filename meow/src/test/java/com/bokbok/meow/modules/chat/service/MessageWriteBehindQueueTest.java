@@ -0,0 +1,300 @@
+package com.bokbok.meow.modules.chat.service;
+
+import com.bokbok.meow.modules.chat.entity.Conversation;
+import com.bokbok.meow.modules.chat.entity.Message;
+import com.bokbok.meow.modules.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageWriteBehindQueueTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager =
+            mock(PlatformTransactionManager.class);
+    private MessageWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any()))
+                .thenReturn(new SimpleTransactionStatus());
+        queue = new MessageWriteBehindQueue(jdbcTemplate, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "queueCapacity", 10);
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        ReflectionTestUtils.setField(queue, "lingerMs", 20L);
+        ReflectionTestUtils.setField(queue, "enqueueTimeoutMs", 10L);
+        ReflectionTestUtils.setField(queue, "ackTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(queue, "retryInitialMs", 10L);
+        ReflectionTestUtils.setField(queue, "retryMaxMs", 50L);
+        ReflectionTestUtils.setField(queue, "shutdownTimeoutMs", 300L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        queue.stop();
+    }
+
+    @Test
+    void transientFailureIsRetriedUntilTheBatchIsWritten() {
+        AtomicInteger attempts = new AtomicInteger();
+        whenInsert(batch -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            return inserted(batch.size());
+        });
+        queue.start();
+
+        CompletableFuture<String> written = queue.enqueueAfterCommit(message("m1", null), "hi");
+
+        assertThat(queue.ack(written).join()).isEqualTo("m1");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void constraintViolationDeadLettersOnlyTheOffendingRow() {
+        whenInsert(batch -> {
+            if (batch.stream().anyMatch(m -> "bad".equals(idOf(m)))) {
+                throw new DataIntegrityViolationException("fk_messages_conversation");
+            }
+            return inserted(batch.size());
+        });
+        queue.start();
+
+        CompletableFuture<String> good = queue.enqueueAfterCommit(message("good", null), "hi");
+        CompletableFuture<String> bad = queue.enqueueAfterCommit(message("bad", null), "hi");
+
+        assertThat(queue.ack(good).join()).isEqualTo("good");
+        assertThatThrownBy(() -> queue.ack(bad).join())
+                .hasRootCauseMessage("Message could not be saved");
+    }
+
+    @Test
+    void skippedDuplicateCompletesWithTheExistingRowsId() {
+        whenInsert(batch -> new int[][]{new int[batch.size()]});
+        when(jdbcTemplate.query(startsWith("SELECT id FROM messages"),
+                any(ResultSetExtractor.class), eq("sender"), eq("client-1")))
+                .thenReturn("original");
+        queue.start();
+
+        CompletableFuture<String> written =
+                queue.enqueueAfterCommit(message("retry", "client-1"), "hi");
+
+        assertThat(queue.ack(written).join()).isEqualTo("original");
+        // Nothing was inserted, so no preview or counter update
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE conversations"),
+                any(Collection.class), anyInt(), any());
+    }
+
+    @Test
+    void slowFlushFailsTheAckButStillWritesTheMessage() throws Exception {
+        ReflectionTestUtils.setField(queue, "ackTimeoutMs", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        whenInsert(batch -> {
+            release.await();
+            return inserted(batch.size());
+        });
+        queue.start();
+
+        CompletableFuture<String> written = queue.enqueueAfterCommit(message("m1", null), "hi");
+        CompletableFuture<String> ack = queue.ack(written);
+
+        assertThatThrownBy(ack::join)
+                .hasRootCauseMessage("Message is still being saved, please retry");
+        release.countDown();
+        assertThat(written.get(2, TimeUnit.SECONDS)).isEqualTo("m1");
+    }
+
+    @Test
+    void messageIsOnlyQueuedOnceTheSendCommits() throws Exception {
+        whenInsert(batch -> inserted(batch.size()));
+        queue.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<String> written = queue.enqueueAfterCommit(message("m1", null), "hi");
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(written).isNotDone();
+
+        List<TransactionSynchronization> synchronizations =
+                TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(queue.ack(written).join()).isEqualTo("m1");
+    }
+
+    @Test
+    void rolledBackSendIsDroppedAndReleasesItsSlot() {
+        ReflectionTestUtils.setField(queue, "queueCapacity", 1);
+        whenInsert(batch -> inserted(batch.size()));
+        queue.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<String> written = queue.enqueueAfterCommit(message("m1", null), "hi");
+        assertThatThrownBy(() -> queue.enqueueAfterCommit(message("m2", null), "hi"))
+                .hasMessage("Message queue is full, please retry");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(
+                s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(written).isCancelled();
+        queue.enqueueAfterCommit(message("m3", null), "hi");
+    }
+
+    @Test
+    void shutdownDrainsWhatIsQueued() throws InterruptedException {
+        whenInsert(batch -> inserted(batch.size()));
+        queue.start();
+
+        CompletableFuture<String> first = queue.enqueueAfterCommit(message("m1", null), "hi");
+        CompletableFuture<String> second = queue.enqueueAfterCommit(message("m2", null), "hi");
+        queue.stop();
+
+        assertThat(first).isCompletedWithValue("m1");
+        assertThat(second).isCompletedWithValue("m2");
+    }
+
+    @Test
+    void shutdownGivesUpOnAnUnreachableDatabaseAfterTheDeadline() throws InterruptedException {
+        whenInsert(batch -> {
+            throw new TransientDataAccessResourceException("database down");
+        });
+        queue.start();
+
+        CompletableFuture<String> written = queue.enqueueAfterCommit(message("m1", null), "hi");
+        long started = System.nanoTime();
+        queue.stop();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2000);
+        assertThat(written).isCompletedExceptionally();
+        assertThatThrownBy(() -> queue.enqueueAfterCommit(message("m2", null), "hi"))
+                .hasMessage("Message queue is full, please retry");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreadIncrementCarriesEachMessagesTimeForTheWatermarkCheck() throws Exception {
+        whenInsert(batch -> inserted(batch.size()));
+        queue.start();
+
+        LocalDateTime first = LocalDateTime.now().minusSeconds(2);
+        LocalDateTime second = LocalDateTime.now().minusSeconds(1);
+        queue.ack(queue.enqueueAfterCommit(message("m1", null, first), "hi")).join();
+        queue.ack(queue.enqueueAfterCommit(message("m2", null, second), "hi")).join();
+
+        ArgumentCaptor<Collection<Object>> groups = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(
+                contains("user1_read_up_to IS NULL OR t.at > user1_read_up_to"),
+                groups.capture(), anyInt(), setter.capture());
+
+        // Bind every (conversation, sender) group the flusher produced
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(ps.getConnection()).thenReturn(connection);
+        List<Object> sentAt = new ArrayList<>();
+        when(connection.createArrayOf(eq("timestamp"), any())).thenAnswer(inv -> {
+            sentAt.addAll(Arrays.asList(inv.getArgument(1, Object[].class)));
+            return mock(Array.class);
+        });
+        for (int i = 0; i < groups.getAllValues().size(); i++) {
+            for (Object group : groups.getAllValues().get(i)) {
+                setter.getAllValues().get(i).setValues(ps, group);
+            }
+        }
+
+        assertThat(sentAt).containsExactlyInAnyOrder(
+                Timestamp.valueOf(first), Timestamp.valueOf(second));
+        verify(ps, atLeastOnce()).setString(1, "sender");
+        verify(ps, atLeastOnce()).setString(5, "conversation");
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private interface InsertResult {
+        int[][] apply(List<Object> batch) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void whenInsert(InsertResult result) {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO messages"),
+                any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> result.apply(List.copyOf((Collection<Object>) inv.getArgument(1))));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE conversations"),
+                any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{});
+    }
+
+    private static int[][] inserted(int size) {
+        int[] counts = new int[size];
+        Arrays.fill(counts, 1);
+        return new int[][]{counts};
+    }
+
+    private static String idOf(Object pending) {
+        return (String) ReflectionTestUtils.invokeMethod(pending, "id");
+    }
+
+    private static Message message(String id, String clientMessageId) {
+        return message(id, clientMessageId, LocalDateTime.now());
+    }
+
+    private static Message message(String id, String clientMessageId, LocalDateTime createdAt) {
+        return Message.builder()
+                .id(id)
+                .conversation(Conversation.builder().id("conversation").build())
+                .sender(User.builder().id("sender").build())
+                .clientMessageId(clientMessageId)
+                .type(Message.MessageType.TEXT)
+                .content("hello")
+                .status(Message.MessageStatus.SENT)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.bokbok.meow.modules.presence.service;
+
+import com.bokbok.meow.modules.presence.dto.PresenceUpdate;
+import com.bokbok.meow.modules.user.service.UserStatusStore;
+import com.bokbok.meow.support.EmbeddedRedis;
+import com.bokbok.meow.websocket.PresenceService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class PresenceQueryServiceTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private PresenceQueryService presence;
+
+    private static final LocalDateTime SEEN = LocalDateTime.of(2026, 1, 2, 3, 4);
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        presence = new PresenceQueryService(redisTemplate, messagingTemplate);
+        ReflectionTestUtils.setField(presence, "maxWatched", 2);
+        ReflectionTestUtils.setField(presence, "watchTtlHours", 1L);
+        redisTemplate.opsForValue().set(PresenceService.PRESENCE_KEY + "bob", "ONLINE");
+        redisTemplate.opsForValue().set(UserStatusStore.LAST_SEEN_KEY + "carol", SEEN.toString());
+    }
+
+    // ── Bulk query ──────────────────────────────────────────────
+
+    @Test
+    void queryReadsOnlineStateAndLastSeenInOrder() {
+        List<PresenceUpdate> updates = presence.query(List.of("bob", "carol", "dave", "bob"));
+
+        assertThat(updates).extracting(PresenceUpdate::getUserId)
+                .containsExactly("bob", "carol", "dave");
+        assertThat(updates).extracting(PresenceUpdate::getStatus)
+                .containsExactly("ONLINE", "OFFLINE", "OFFLINE");
+        assertThat(updates).extracting(PresenceUpdate::getLastSeen)
+                .containsExactly(null, SEEN, null);
+    }
+
+    // ── Watch lists ─────────────────────────────────────────────
+
+    @Test
+    void newlyWatchedUsersArePushedOnceAndRegistered() {
+        presence.watch("s1", "alice", List.of("bob", "carol"));
+        clearInvocations(messagingTemplate);
+        presence.watch("s1", "alice", List.of("bob", "carol"));
+
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+        assertThat(presence.watchersOf(List.of("bob", "carol", "dave")))
+                .containsOnlyKeys("bob", "carol")
+                .containsEntry("bob", Set.of("alice"));
+        assertThat(redisTemplate.getExpire("watchers:presence:bob")).isPositive();
+    }
+
+    @Test
+    void watchListIsCappedAndSkipsTheWatcher() {
+        presence.watch("s1", "alice", List.of("alice", "bob", "carol"));
+
+        ArgumentCaptor<Object> pushed = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"),
+                eq("/queue/presence"), pushed.capture());
+        assertThat((List<?>) pushed.getValue()).extracting("userId").containsExactly("bob");
+    }
+
+    @Test
+    void replacingTheListUnwatchesDroppedUsers() {
+        presence.watch("s1", "alice", List.of("bob", "carol"));
+        presence.watch("s1", "alice", List.of("carol"));
+
+        Map<String, Set<String>> watchers = presence.watchersOf(List.of("bob", "carol"));
+        assertThat(watchers).containsOnlyKeys("carol");
+    }
+
+    @Test
+    void disconnectKeepsUsersAnotherSessionStillWatches() {
+        presence.watch("s1", "alice", List.of("bob", "carol"));
+        presence.watch("s2", "alice", List.of("carol"));
+
+        presence.onDisconnected(disconnect("s1"));
+
+        assertThat(presence.watchersOf(List.of("bob", "carol"))).containsOnlyKeys("carol");
+        presence.onDisconnected(disconnect("s2"));
+        assertThat(presence.watchersOf(List.of("carol"))).isEmpty();
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private static SessionDisconnectEvent disconnect(String sessionId) {
+        return new SessionDisconnectEvent(PresenceQueryServiceTest.class,
+                MessageBuilder.withPayload(new byte[0]).build(), sessionId, CloseStatus.NORMAL);
+    }
+}
@@ -0,0 +1,149 @@
+package com.bokbok.meow.modules.user.service;
+
+import com.bokbok.meow.modules.user.entity.User;
+import com.bokbok.meow.support.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserStatusStoreTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final Connection connection = mock(Connection.class);
+    private UserStatusStore store;
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EmbeddedRedis.flushAll(redisTemplate);
+        store = new UserStatusStore(redisTemplate, jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "ttlDays", 30L);
+        store.init();
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    }
+
+    // ── Redis state ─────────────────────────────────────────────
+
+    @Test
+    void recordedStatusIsReadBackFromRedis() {
+        LocalDateTime seen = LocalDateTime.of(2026, 1, 2, 3, 4);
+        store.record("u1", User.UserStatus.OFFLINE, seen);
+        store.record("u2", User.UserStatus.ONLINE, null);
+
+        Map<String, UserStatusStore.Snapshot> live = store.get(List.of("u1", "u2", "u3"));
+
+        assertThat(live).containsOnlyKeys("u1", "u2");
+        assertThat(live.get("u1")).isEqualTo(
+                new UserStatusStore.Snapshot(User.UserStatus.OFFLINE, seen));
+        assertThat(live.get("u2")).isEqualTo(
+                new UserStatusStore.Snapshot(User.UserStatus.ONLINE, null));
+        assertThat(redisTemplate.getExpire(UserStatusStore.STATUS_KEY + "u1")).isPositive();
+    }
+
+    @Test
+    void statusChangeKeepsTheLastSeenAlreadyInRedis() {
+        LocalDateTime seen = LocalDateTime.of(2026, 1, 2, 3, 4);
+        store.record("u1", User.UserStatus.OFFLINE, seen);
+        store.record("u1", User.UserStatus.AWAY, null);
+
+        assertThat(store.get(List.of("u1")).get("u1"))
+                .isEqualTo(new UserStatusStore.Snapshot(User.UserStatus.AWAY, seen));
+    }
+
+    // ── Flush ───────────────────────────────────────────────────
+
+    @Test
+    void lastSeenNeverMovesBackwards() throws Exception {
+        store.record("u1", User.UserStatus.ONLINE, null);
+        store.flush();
+
+        // A null lastSeen must keep the stored one, and an older one must lose
+        String sql = flushedSql();
+        assertThat(sql).contains("last_seen = GREATEST(u.last_seen, v.last_seen)");
+        assertThat(sql).doesNotContain("COALESCE");
+    }
+
+    @Test
+    void olderStatusFromAnotherNodeDoesNotOverwriteANewerOne() throws Exception {
+        LocalDateTime before = LocalDateTime.now();
+        store.record("u1", User.UserStatus.OFFLINE, before);
+        store.flush();
+
+        // The change time goes with the batch and guards the status column
+        String sql = flushedSql();
+        assertThat(sql).contains("v.changed_at > u.status_changed_at THEN v.status ELSE u.status");
+        assertThat(sql).contains("status_changed_at = GREATEST(u.status_changed_at, v.changed_at)");
+        ArgumentCaptor<Object[]> arrays = ArgumentCaptor.forClass(Object[].class);
+        verify(connection, times(2)).createArrayOf(eq("timestamp"), arrays.capture());
+        Timestamp changedAt = (Timestamp) arrays.getAllValues().get(1)[0];
+        assertThat(changedAt.toLocalDateTime()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    void changesAreCoalescedPerUser() throws Exception {
+        LocalDateTime seen = LocalDateTime.of(2026, 1, 2, 3, 4);
+        store.record("u1", User.UserStatus.OFFLINE, seen);
+        store.record("u1", User.UserStatus.ONLINE, null);
+        store.flush();
+
+        flushedSql();
+        verify(connection).createArrayOf("varchar", new Object[]{"u1"});
+        verify(connection).createArrayOf("varchar", new Object[]{"ONLINE"});
+        verify(connection).createArrayOf("timestamp", new Object[]{Timestamp.valueOf(seen)});
+    }
+
+    @Test
+    void failedFlushIsRetriedNextTime() throws Exception {
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class)))
+                .thenThrow(new TransientDataAccessResourceException("down"))
+                .thenReturn(1);
+        store.record("u1", User.UserStatus.AWAY, null);
+
+        store.flush();
+        store.flush();
+        store.flush();  // nothing left
+
+        verify(jdbcTemplate, times(2)).update(any(PreparedStatementCreator.class));
+    }
+
+    // ── Private Helpers ─────────────────────────────────────────
+
+    private String flushedSql() throws Exception {
+        ArgumentCaptor<PreparedStatementCreator> creator =
+                ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).update(creator.capture());
+        creator.getValue().createPreparedStatement(connection);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        return sql.getValue();
+    }
+}
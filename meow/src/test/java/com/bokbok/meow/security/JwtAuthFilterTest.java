@@ -0,0 +1,65 @@
+package com.bokbok.meow.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTest {
+
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final JwtAuthFilter filter = new JwtAuthFilter(jwtUtil);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void principalIsTheUserIdFromTheToken() throws Exception {
+        when(jwtUtil.validateAndGetUserId("good")).thenReturn("alice");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(bearer("good"), new MockHttpServletResponse(), chain);
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getPrincipal()).isEqualTo("alice");
+        assertThat(auth.getCredentials()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void revokedOrInvalidTokenLeavesTheRequestAnonymous() throws Exception {
+        when(jwtUtil.validateAndGetUserId("revoked")).thenReturn(null);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(bearer("revoked"), new MockHttpServletResponse(), chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void requestWithoutBearerTokenIsPassedThrough() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        verifyNoInteractions(jwtUtil);
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
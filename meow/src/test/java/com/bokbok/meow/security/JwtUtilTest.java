@@ -0,0 +1,153 @@
+package com.bokbok.meow.security;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hs256";
+
+    private final TokenRevocationService revocations = mock(TokenRevocationService.class);
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(60_000L);
+    }
+
+    // ── Verification ────────────────────────────────────────────
+
+    @Test
+    void validTokenYieldsItsSubject() {
+        String token = jwtUtil.generateAccessToken("alice", "+1");
+
+        assertThat(jwtUtil.validateAndGetUserId(token)).isEqualTo("alice");
+        assertThat(jwtUtil.isTokenValid(token)).isTrue();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtil.generateAccessToken("alice", "+1");
+        String forged = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtUtil.validateAndGetUserId(forged)).isNull();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        JwtUtil other = jwtUtil(60_000L);
+        ReflectionTestUtils.setField(other, "secret", "another-secret-that-is-long-enough-for-hs256");
+        other.init();
+
+        assertThat(jwtUtil.validateAndGetUserId(other.generateAccessToken("alice", "+1"))).isNull();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil expiring = jwtUtil(-1_000L);
+
+        assertThat(expiring.validateAndGetUserId(expiring.generateAccessToken("alice", "+1")))
+                .isNull();
+    }
+
+    // ── Verified cache ──────────────────────────────────────────
+
+    @Test
+    void repeatedTokenSkipsTheSignatureCheck() {
+        String token = jwtUtil.generateAccessToken("alice", "+1");
+        jwtUtil.validateAndGetUserId(token);
+
+        // Any further parse would now fail
+        JwtParser failing = mock(JwtParser.class);
+        when(failing.parseSignedClaims(anyString())).thenThrow(new SignatureException("no"));
+        ReflectionTestUtils.setField(jwtUtil, "parser", failing);
+
+        assertThat(jwtUtil.validateAndGetUserId(token)).isEqualTo("alice");
+        assertThat(jwtUtil.validateAndGetUserId(
+                jwtUtil.generateAccessToken("bob", "+2"))).isNull();
+    }
+
+    @Test
+    void cacheIsResetAtItsBound() {
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 1);
+        String first = jwtUtil.generateAccessToken("alice", "+1");
+        jwtUtil.validateAndGetUserId(first);
+        jwtUtil.validateAndGetUserId(jwtUtil.generateAccessToken("bob", "+2"));
+
+        JwtParser failing = mock(JwtParser.class);
+        when(failing.parseSignedClaims(anyString())).thenThrow(new SignatureException("no"));
+        ReflectionTestUtils.setField(jwtUtil, "parser", failing);
+
+        // alice was dropped to make room for bob, so it is verified again
+        assertThat(jwtUtil.validateAndGetUserId(first)).isNull();
+    }
+
+    // ── Revocation ──────────────────────────────────────────────
+
+    @Test
+    void revokedTokenIsRejectedEvenWhenCached() {
+        String token = jwtUtil.generateAccessToken("alice", "+1");
+        assertThat(jwtUtil.validateAndGetUserId(token)).isEqualTo("alice");
+
+        when(revocations.isRevoked(eq("alice"), anyLong())).thenReturn(true);
+
+        assertThat(jwtUtil.validateAndGetUserId(token)).isNull();
+    }
+
+    @Test
+    void revocationIsCheckedAgainstTheMillisecondIssueTime() {
+        long before = System.currentTimeMillis();
+        String token = jwtUtil.generateAccessToken("alice", "+1");
+        long after = System.currentTimeMillis();
+
+        jwtUtil.validateAndGetUserId(token);
+
+        ArgumentCaptor<Long> issuedAt = ArgumentCaptor.forClass(Long.class);
+        verify(revocations).isRevoked(eq("alice"), issuedAt.capture());
+        assertThat(issuedAt.getValue()).isBetween(before, after);
+    }
+
+    @Test
+    void tokenWithoutMillisecondClaimFallsBackToTheStartOfItsSecond() {
+        Date issued = new Date(System.currentTimeMillis() / 1000 * 1000);
+        String legacy = Jwts.builder()
+                .subject("alice")
+                .issuedAt(issued)
+                .expiration(new Date(issued.getTime() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        jwtUtil.validateAndGetUserId(legacy);
+
+        verify(revocations).isRevoked("alice", issued.getTime());
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private JwtUtil jwtUtil(long expiryMs) {
+        JwtUtil util = new JwtUtil(revocations);
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "accessTokenExpiry", expiryMs);
+        ReflectionTestUtils.setField(util, "verifiedCacheMaxSize", 100);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bokbok.meow.security;
+
+import com.bokbok.meow.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationServiceTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private static final long EXPIRY_MS = 900_000L;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        EmbeddedRedis.flushAll(redisTemplate);
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        listenerContainer.stop();
+    }
+
+    // ── Cutoff ──────────────────────────────────────────────────
+
+    @Test
+    void cutoffIsExactToTheMillisecond() {
+        TokenRevocationService revocations = node();
+        long before = System.currentTimeMillis();
+
+        revocations.revokeAll("alice");
+        long revokedAt = Long.parseLong(
+                (String) redisTemplate.opsForHash().get("auth:revoked", "alice"));
+
+        assertThat(revocations.isRevoked("alice", before)).isTrue();
+        assertThat(revocations.isRevoked("alice", revokedAt)).isTrue();
+        assertThat(revocations.isRevoked("alice", revokedAt + 1)).isFalse();
+        assertThat(revocations.isRevoked("bob", before)).isFalse();
+    }
+
+    @Test
+    void loginLaterInTheLogoutSecondIsNotRevoked() {
+        TokenRevocationService revocations = node();
+        long second = System.currentTimeMillis() / 1000 * 1000;
+        redisTemplate.opsForHash().put("auth:revoked", "alice", String.valueOf(second + 100));
+        revocations.reload();
+
+        // Both would carry the same iat second
+        assertThat(revocations.isRevoked("alice", second + 50)).isTrue();
+        assertThat(revocations.isRevoked("alice", second + 150)).isFalse();
+    }
+
+    // ── Sharing between nodes ───────────────────────────────────
+
+    @Test
+    void otherNodesHearTheRevocation() throws InterruptedException {
+        TokenRevocationService nodeA = node();
+        TokenRevocationService nodeB = node();
+        while (!listenerContainer.isListening()) Thread.sleep(10);
+
+        long before = System.currentTimeMillis();
+        nodeA.revokeAll("alice");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!nodeB.isRevoked("alice", before) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(nodeB.isRevoked("alice", before)).isTrue();
+    }
+
+    @Test
+    void startupLoadsRecentRevocationsAndPrunesOldOnes() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForHash().put("auth:revoked", "alice", String.valueOf(now));
+        redisTemplate.opsForHash().put("auth:revoked", "bob",
+                String.valueOf(now - EXPIRY_MS - 60_000));
+
+        TokenRevocationService revocations = node();
+
+        assertThat(revocations.isRevoked("alice", now - 5000)).isTrue();
+        assertThat(revocations.isRevoked("bob", now - EXPIRY_MS - 120_000)).isFalse();
+        assertThat(redisTemplate.opsForHash().hasKey("auth:revoked", "bob")).isFalse();
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private TokenRevocationService node() {
+        TokenRevocationService service =
+                new TokenRevocationService(redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(service, "accessTokenExpiry", EXPIRY_MS);
+        service.start();
+        return service;
+    }
+}
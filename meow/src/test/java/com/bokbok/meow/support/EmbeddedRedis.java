@@ -0,0 +1,71 @@
+package com.bokbok.meow.support;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.Map;
+
+// One in-process Redis per test JVM on a free port. Tests share it and
+// call flushAll() before each run.
+public final class EmbeddedRedis {
+
+    private static RedisServer server;
+    private static int port;
+
+    private EmbeddedRedis() {}
+
+    public static synchronized int port() {
+        if (server == null) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                server = new RedisServer(port);
+                server.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.stop();
+                } catch (IOException ignored) {
+                    // JVM is exiting anyway
+                }
+            }));
+        }
+        return port;
+    }
+
+    // Properties for contexts that import RedisConfig
+    public static Map<String, Object> properties() {
+        return Map.of(
+                "spring.data.redis.host", "localhost",
+                "spring.data.redis.port", port(),
+                "spring.data.redis.password", "",
+                "spring.data.redis.ssl.enabled", false
+        );
+    }
+
+    public static StringRedisTemplate template() {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", port()));
+        factory.afterPropertiesSet();
+        factory.start();
+        return new StringRedisTemplate(factory);
+    }
+
+    public static void flushAll(StringRedisTemplate template) {
+        template.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.bokbok.meow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdsTest {
+
+    @Test
+    void idsAreVersion7() {
+        UUID id = UUID.fromString(TimeOrderedIds.next());
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    // IDs are stored as varchar, so string order is what the index sees
+    @Test
+    void idsSortInCreationOrderAsStrings() {
+        String previous = TimeOrderedIds.next();
+        for (int i = 0; i < 100_000; i++) {
+            String next = TimeOrderedIds.next();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void idsCarryTheCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UUID.fromString(TimeOrderedIds.next());
+        long after = System.currentTimeMillis();
+
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertThat(millis).isBetween(before, after);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// One chat message body as JSON and as CBOR: encode, decode, and the
+// JSON → tree → CBOR transcode that relay-mode frames still take. Body
+// sizes are printed at setup.
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp
+//   java -cp target/test-classes:target/classes:$(cat target/test.cp) \
+//        org.openjdk.jmh.Main PayloadFormatBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = new PayloadFormats().cborMapper();
+
+    private MessageResponse payload;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() {
+        payload = MessageResponse.builder()
+                .id("0192f3a4-5b6c-7d8e-9f00-112233445566")
+                .clientMessageId("c-42")
+                .conversationId("0192f3a4-0000-7000-8000-000000000001")
+                .senderId("user-0")
+                .senderName("Alice")
+                .senderAvatarUrl("https://res.cloudinary.com/demo/image/upload/avatar.jpg")
+                .receiverId("user-1")
+                .type("TEXT")
+                .content("See you at the station at six, I'll bring the tickets and snacks!")
+                .status("DELIVERED")
+                .createdAt(LocalDateTime.now())
+                .deliveredAt(LocalDateTime.now())
+                .build();
+        json = jsonMapper.writeValueAsBytes(payload);
+        cbor = cborMapper.writeValueAsBytes(payload);
+        System.out.printf("body bytes: json=%d cbor=%d transcoded=%d%n",
+                json.length, cbor.length, transcodeJsonToCbor().length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() {
+        return cborMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] transcodeJsonToCbor() {
+        return cborMapper.writeValueAsBytes(jsonMapper.readTree(json));
+    }
+
+    @Benchmark
+    public MessageResponse decodeJson() {
+        return jsonMapper.readValue(json, MessageResponse.class);
+    }
+
+    @Benchmark
+    public MessageResponse decodeCbor() {
+        return cborMapper.readValue(cbor, MessageResponse.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.modules.chat.service.ContactGraph;
+import com.bokbok.meow.modules.presence.dto.PresenceUpdate;
+import com.bokbok.meow.modules.presence.service.PresenceQueryService;
+import com.bokbok.meow.modules.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PresenceFanoutTest {
+
+    private final ContactGraph contactGraph = mock(ContactGraph.class);
+    private final PresenceQueryService presenceQueryService = mock(PresenceQueryService.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PresenceFanout fanout;
+
+    @BeforeEach
+    void setUp() {
+        fanout = new PresenceFanout(contactGraph, presenceQueryService,
+                messagingTemplate, meterRegistry);
+        ReflectionTestUtils.setField(fanout, "enabled", true);
+        ReflectionTestUtils.setField(fanout, "debounceMs", 0L);
+        fanout.init();
+    }
+
+    @Test
+    void flapBackToTheStartingStatusIsDropped() {
+        fanout.statusChanged("alice", User.UserStatus.ONLINE, User.UserStatus.OFFLINE);
+        fanout.statusChanged("alice", User.UserStatus.OFFLINE, User.UserStatus.ONLINE);
+        fanout.flush();
+
+        verifyNoInteractions(contactGraph, messagingTemplate);
+        assertThat(meterRegistry.counter("chat.presence.fanout.debounced").count()).isEqualTo(1);
+    }
+
+    @Test
+    void changesInsideTheWindowAreHeld() {
+        ReflectionTestUtils.setField(fanout, "debounceMs", 60_000L);
+        fanout.statusChanged("alice", User.UserStatus.OFFLINE, User.UserStatus.ONLINE);
+        fanout.flush();
+
+        verifyNoInteractions(contactGraph, messagingTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void settledChangesGoOutAsOneBatchPerRecipient() {
+        when(contactGraph.contactsOf(anyCollection())).thenReturn(Map.of(
+                "alice", Set.of("carol"),
+                "bob", Set.of("carol")));
+        when(presenceQueryService.watchersOf(anyCollection())).thenReturn(Map.of(
+                "bob", Set.of("dave")));
+
+        fanout.statusChanged("alice", User.UserStatus.OFFLINE, User.UserStatus.ONLINE);
+        fanout.statusChanged("bob", User.UserStatus.ONLINE, User.UserStatus.OFFLINE);
+        fanout.flush();
+
+        ArgumentCaptor<Object> toCarol = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("carol"), eq("/queue/presence"),
+                toCarol.capture());
+        List<PresenceUpdate> carolUpdates = (List<PresenceUpdate>) toCarol.getValue();
+        assertThat(carolUpdates).extracting(PresenceUpdate::getUserId)
+                .containsExactlyInAnyOrder("alice", "bob");
+        assertThat(carolUpdates).filteredOn(u -> u.getUserId().equals("alice"))
+                .singleElement()
+                .satisfies(u -> assertThat(u.getLastSeen()).isNull());
+
+        ArgumentCaptor<Object> toDave = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("dave"), eq("/queue/presence"),
+                toDave.capture());
+        assertThat((List<PresenceUpdate>) toDave.getValue()).singleElement()
+                .satisfies(u -> {
+                    assertThat(u.getStatus()).isEqualTo("OFFLINE");
+                    assertThat(u.getLastSeen()).isNotNull();
+                });
+        assertThat(meterRegistry.counter("chat.presence.fanout.batches").count()).isEqualTo(2);
+
+        // Nothing left for the next tick
+        fanout.flush();
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+}
@@ -0,0 +1,158 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.support.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+class PresenceServiceTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PresenceService presence;
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+        presence = service(redisTemplate, meterRegistry);
+    }
+
+    // ── Near-cache ──────────────────────────────────────────────
+
+    @Test
+    void secondLookupIsAnsweredFromTheCache() {
+        redisTemplate.opsForValue().set("presence:bob", "ONLINE");
+
+        assertThat(presence.isOnline("bob")).isTrue();
+        // Gone from Redis, but the cached answer holds until evicted
+        redisTemplate.delete("presence:bob");
+        assertThat(presence.isOnline("bob")).isTrue();
+
+        assertThat(count("miss")).isEqualTo(1);
+        assertThat(count("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void evictionForcesTheNextLookupBackToRedis() {
+        redisTemplate.opsForValue().set("presence:bob", "ONLINE");
+        assertThat(presence.isOnline("bob")).isTrue();
+
+        redisTemplate.delete("presence:bob");
+        presence.evict("bob");
+
+        assertThat(presence.isOnline("bob")).isFalse();
+        assertThat(meterRegistry.get("chat.presence.cache.evictions").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void readThatRacedWithAnEvictionIsNotCached() {
+        StringRedisTemplate racing = spy(redisTemplate);
+        PresenceService raced = service(racing, new SimpleMeterRegistry());
+        redisTemplate.opsForValue().set("presence:bob", "ONLINE");
+        // Another node deletes the key after our read was answered
+        doAnswer(inv -> {
+            Object answer = inv.callRealMethod();
+            redisTemplate.delete("presence:bob");
+            raced.evict("bob");
+            return answer;
+        }).when(racing).hasKey("presence:bob");
+
+        assertThat(raced.isOnline("bob")).isTrue();
+        assertThat(raced.isOnline("bob")).isFalse();
+    }
+
+    @Test
+    void ownWritesAreCachedWithoutARead() {
+        presence.setOnline("alice");
+        assertThat(presence.isOnline("alice")).isTrue();
+
+        presence.setOffline("alice");
+        assertThat(presence.isOnline("alice")).isFalse();
+        assertThat(count("miss")).isZero();
+    }
+
+    @Test
+    void disabledCacheAlwaysReadsRedis() {
+        ReflectionTestUtils.setField(presence, "cacheEnabled", false);
+        redisTemplate.opsForValue().set("presence:bob", "ONLINE");
+        assertThat(presence.isOnline("bob")).isTrue();
+
+        redisTemplate.delete("presence:bob");
+        assertThat(presence.isOnline("bob")).isFalse();
+    }
+
+    // ── Batch lookup ────────────────────────────────────────────
+
+    @Test
+    void batchLookupPipelinesOnlyTheUncachedUsers() {
+        redisTemplate.opsForValue().set("presence:bob", "ONLINE");
+        presence.setOffline("carol");
+
+        Map<String, Boolean> online = presence.areOnline(List.of("bob", "carol", "dave"));
+
+        assertThat(online).containsExactlyInAnyOrderEntriesOf(
+                Map.of("bob", true, "carol", false, "dave", false));
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(2);
+
+        // Now cached as well
+        redisTemplate.delete("presence:bob");
+        assertThat(presence.areOnline(List.of("bob"))).containsEntry("bob", true);
+    }
+
+    // ── Heartbeat ───────────────────────────────────────────────
+
+    @Test
+    void heartbeatExtendsLiveKeysAndRestoresExpiredOnes() {
+        redisTemplate.opsForValue().set("presence:alice", "ONLINE", Duration.ofSeconds(5));
+
+        int restored = presence.refreshAll(List.of("alice", "bob"));
+
+        assertThat(restored).isEqualTo(1);
+        assertThat(redisTemplate.getExpire("presence:alice")).isGreaterThan(60);
+        assertThat(redisTemplate.opsForValue().get("presence:bob")).isEqualTo("ONLINE");
+        assertThat(redisTemplate.getExpire("presence:bob")).isGreaterThan(60);
+    }
+
+    @Test
+    void heartbeatWithNothingExpiredRestoresNothing() {
+        presence.setOnline("alice");
+
+        assertThat(presence.refreshAll(List.of("alice"))).isZero();
+        assertThat(presence.refreshAll(List.of())).isZero();
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private static PresenceService service(StringRedisTemplate template,
+                                           SimpleMeterRegistry registry) {
+        PresenceService service = new PresenceService(template, registry);
+        ReflectionTestUtils.setField(service, "cacheEnabled", true);
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+        service.init();
+        return service;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("chat.presence.cache").tag("result", result).counter().count();
+    }
+}
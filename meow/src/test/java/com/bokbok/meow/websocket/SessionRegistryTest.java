@@ -0,0 +1,130 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.support.EmbeddedRedis;
+import com.bokbok.meow.websocket.cluster.ClusterNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionRegistryTest {
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final BlockingQueue<String> routeChanges = new LinkedBlockingQueue<>();
+    private RedisMessageListenerContainer listenerContainer;
+    private ClusterNode clusterNode;
+    private SessionRegistry registry;
+
+    @BeforeAll
+    static void startRedis() {
+        redisTemplate = EmbeddedRedis.template();
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        EmbeddedRedis.flushAll(redisTemplate);
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.addMessageListener((message, pattern) -> routeChanges.add(
+                new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(SessionRegistry.ROUTES_CHANNEL));
+        listenerContainer.start();
+
+        clusterNode = new ClusterNode(redisTemplate);
+        ReflectionTestUtils.setField(clusterNode, "configuredNodeId", "a");
+        ReflectionTestUtils.setField(clusterNode, "nodeTimeoutMs", 30_000L);
+        clusterNode.register();
+
+        registry = new SessionRegistry(redisTemplate, clusterNode,
+                listenerContainer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registry, "nodeTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(registry, "routeTtlMs", 60_000L);
+        ReflectionTestUtils.setField(registry, "routeCacheMaxSize", 100);
+        registry.subscribe();
+        // The subscription is asynchronous — wait for it before publishing
+        while (!listenerContainer.isListening()) Thread.sleep(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listenerContainer.stop();
+    }
+
+    // ── Reference counting ──────────────────────────────────────
+
+    @Test
+    void onlyTheFirstAndLastSessionChangeOnlineState() {
+        assertThat(registry.connected("s1", "alice")).isTrue();
+        assertThat(registry.connected("s2", "alice")).isFalse();
+
+        assertThat(registry.disconnected("s1")).isFalse();
+        assertThat(registry.disconnected("s2")).isTrue();
+        assertThat(redisTemplate.hasKey(SessionRegistry.SESSIONS_KEY + "alice")).isFalse();
+    }
+
+    @Test
+    void repeatedEventsForOneSessionCountOnce() {
+        assertThat(registry.connected("s1", "alice")).isTrue();
+        assertThat(registry.connected("s1", "alice")).isFalse();
+
+        assertThat(registry.disconnected("s1")).isTrue();
+        assertThat(registry.disconnected("s1")).isFalse();
+        assertThat(registry.localSessionCount()).isZero();
+    }
+
+    @Test
+    void sessionsOnAnotherLiveNodeKeepTheUserOnline() {
+        heartbeat("b", System.currentTimeMillis());
+        redisTemplate.opsForHash().put(SessionRegistry.SESSIONS_KEY + "alice", "b", "1");
+
+        assertThat(registry.connected("s1", "alice")).isFalse();
+        assertThat(registry.disconnected("s1")).isFalse();
+        assertThat(redisTemplate.opsForHash().get(SessionRegistry.SESSIONS_KEY + "alice", "b"))
+                .isEqualTo("1");
+    }
+
+    @Test
+    void sessionsLeftByACrashedNodeArePruned() {
+        heartbeat("b", System.currentTimeMillis() - 60_000);
+        redisTemplate.opsForHash().put(SessionRegistry.SESSIONS_KEY + "alice", "b", "3");
+
+        assertThat(registry.connected("s1", "alice")).isTrue();
+        assertThat(redisTemplate.opsForHash().hasKey(SessionRegistry.SESSIONS_KEY + "alice", "b"))
+                .isFalse();
+    }
+
+    // ── Routes ──────────────────────────────────────────────────
+
+    @Test
+    void routeChangeIsPublishedOnlyWhenThisNodeGainsOrLosesTheUser()
+            throws InterruptedException {
+        registry.connected("s1", "alice");
+        registry.connected("s2", "alice");
+        registry.disconnected("s1");
+        registry.disconnected("s2");
+
+        assertThat(routeChanges.poll(5, TimeUnit.SECONDS)).isEqualTo("alice");
+        assertThat(routeChanges.poll(5, TimeUnit.SECONDS)).isEqualTo("alice");
+        assertThat(routeChanges.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private static void heartbeat(String nodeId, long at) {
+        redisTemplate.opsForHash().put(ClusterNode.NODES_KEY, nodeId, String.valueOf(at));
+    }
+}
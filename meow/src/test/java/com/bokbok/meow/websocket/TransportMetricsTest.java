@@ -0,0 +1,54 @@
+package com.bokbok.meow.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransportMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebSocketHandler handler = mock(WebSocketHandler.class);
+    private final WebSocketHandler decorated =
+            new TransportMetrics(meterRegistry, 1).decorate(handler);
+
+    @Test
+    void slowConsumerCloseIsCountedWhateverTheReason() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+
+        // ConcurrentWebSocketSessionDecorator adds a reason to the status
+        decorated.afterConnectionClosed(session,
+                CloseStatus.SESSION_NOT_RELIABLE.withReason("Send time limit exceeded"));
+        decorated.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertThat(meterRegistry.counter("chat.ws.slow-consumer.closed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void deflatedSessionsSampleOutboundFrames() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getExtensions()).thenReturn(
+                List.of(new WebSocketExtension(DeflateHandshakeHandler.PERMESSAGE_DEFLATE)));
+
+        decorated.afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> wrapped = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(wrapped.capture());
+        wrapped.getValue().sendMessage(new TextMessage("MESSAGE\n\n" + "hello ".repeat(100) + "\0"));
+
+        verify(session).sendMessage(any(TextMessage.class));
+        assertThat(meterRegistry.summary("chat.ws.compression.ratio").count()).isEqualTo(1);
+        assertThat(meterRegistry.summary("chat.ws.compression.ratio").max()).isLessThan(0.5);
+    }
+}
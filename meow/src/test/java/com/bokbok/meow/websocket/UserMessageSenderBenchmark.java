@@ -0,0 +1,96 @@
+package com.bokbok.meow.websocket;
+
+import com.bokbok.meow.modules.chat.dto.MessageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-recipient convertAndSendToUser vs encode-once fan-out. The broker
+// channel only hands the message to a Blackhole, so the numbers cover
+// conversion and dispatch, not delivery.
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp
+//   java -cp target/test-classes:target/classes:$(cat target/test.cp) \
+//        org.openjdk.jmh.Main UserMessageSenderBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMessageSenderBenchmark {
+
+    // 2 is the chat fan-out (receiver + sender echo)
+    @Param({"2", "10", "50"})
+    private int recipients;
+
+    private SimpMessagingTemplate template;
+    private UserMessageSender sender;
+    private List<String> userIds;
+    private MessageResponse payload;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        MessageChannel broker = new MessageChannel() {
+            @Override
+            public boolean send(Message<?> message, long timeout) {
+                UserMessageSenderBenchmark.this.blackhole.consume(message);
+                return true;
+            }
+        };
+        template = new SimpMessagingTemplate(broker);
+        template.setMessageConverter(new JacksonJsonMessageConverter(JsonMapper.builder().build()));
+        sender = new UserMessageSender(template);
+
+        userIds = new ArrayList<>();
+        for (int i = 0; i < recipients; i++) userIds.add("user-" + i);
+
+        payload = MessageResponse.builder()
+                .id("0192f3a4-5b6c-7d8e-9f00-112233445566")
+                .clientMessageId("c-42")
+                .conversationId("0192f3a4-0000-7000-8000-000000000001")
+                .senderId("user-0")
+                .senderName("Alice")
+                .senderAvatarUrl("https://res.cloudinary.com/demo/image/upload/avatar.jpg")
+                .receiverId("user-1")
+                .type("TEXT")
+                .content("See you at the station at six, I'll bring the tickets and snacks!")
+                .status("DELIVERED")
+                .createdAt(LocalDateTime.now())
+                .deliveredAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public void convertPerRecipient() {
+        for (String userId : userIds) {
+            template.convertAndSendToUser(userId, "/queue/messages", payload);
+        }
+    }
+
+    @Benchmark
+    public void encodeOnce() {
+        sender.sendToUsers(userIds, "/queue/messages", payload);
+    }
+}
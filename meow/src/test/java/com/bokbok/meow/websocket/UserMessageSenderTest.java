@@ -0,0 +1,91 @@
+package com.bokbok.meow.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMessageSenderTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final SimpMessagingTemplate template = new SimpMessagingTemplate(
+            (message, timeout) -> sent.add(message));
+    private final UserMessageSender sender = new UserMessageSender(template);
+
+    UserMessageSenderTest() {
+        template.setMessageConverter(new JacksonJsonMessageConverter(JsonMapper.builder().build()) {
+            @Override
+            protected Object convertToInternal(Object payload,
+                                               MessageHeaders headers,
+                                               Object conversionHint) {
+                conversions.incrementAndGet();
+                return super.convertToInternal(payload, headers, conversionHint);
+            }
+        });
+    }
+
+    @Test
+    void payloadIsEncodedOnceAndSharedByEveryRecipient() {
+        sender.sendToUsers(List.of("alice", "bob", "carol"), "/queue/messages",
+                Map.of("content", "hi"));
+
+        assertThat(conversions).hasValue(1);
+        assertThat(sent).hasSize(3);
+        assertThat(sent).extracting(Message::getPayload).allSatisfy(p ->
+                assertThat(p).isSameAs(sent.get(0).getPayload()));
+        assertThat(new String((byte[]) sent.get(0).getPayload(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"content\":\"hi\"}");
+    }
+
+    @Test
+    void cborBodyIsSharedByEveryRecipient() {
+        template.setMessageConverter(new JsonWithCborMessageConverter(
+                JsonMapper.builder().build(), new PayloadFormats()));
+
+        sender.sendToUsers(List.of("alice", "bob"), "/queue/messages", Map.of("content", "hi"));
+
+        Object body = sent.get(0).getHeaders().get(PayloadFormats.CBOR_BODY_HEADER);
+        assertThat(body).isInstanceOf(PayloadFormats.CborBody.class);
+        assertThat(sent.get(1).getHeaders().get(PayloadFormats.CBOR_BODY_HEADER)).isSameAs(body);
+    }
+
+    @Test
+    void eachRecipientGetsItsOwnUserDestination() {
+        sender.sendToUsers(List.of("alice", "team/bob"), "/queue/messages", Map.of());
+
+        assertThat(sent).extracting(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders()))
+                .containsExactly("/user/alice/queue/messages", "/user/team%2Fbob/queue/messages");
+        assertThat(sent).extracting(m -> SimpMessageHeaderAccessor.wrap(m).getContentType())
+                .allSatisfy(type -> assertThat(MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(type))
+                        .isTrue());
+    }
+
+    // Same frames as the per-recipient path, so clients cannot tell the difference
+    @Test
+    void framesMatchConvertAndSendToUser() {
+        List<Message<?>> expected = new ArrayList<>();
+        SimpMessagingTemplate reference = new SimpMessagingTemplate(
+                (message, timeout) -> expected.add(message));
+        reference.setMessageConverter(new JacksonJsonMessageConverter(JsonMapper.builder().build()));
+        reference.convertAndSendToUser("alice", "/queue/messages", Map.of("content", "hi"));
+
+        sender.sendToUsers(List.of("alice"), "/queue/messages", Map.of("content", "hi"));
+
+        assertThat((byte[]) sent.get(0).getPayload()).isEqualTo(expected.get(0).getPayload());
+        assertThat(SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders()))
+                .isEqualTo(SimpMessageHeaderAccessor.getDestination(expected.get(0).getHeaders()));
+    }
+}
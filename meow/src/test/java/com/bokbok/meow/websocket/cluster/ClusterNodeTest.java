@@ -0,0 +1,68 @@
+package com.bokbok.meow.websocket.cluster;
+
+import com.bokbok.meow.config.RedisConfig;
+import com.bokbok.meow.support.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterNodeTest {
+
+    private final StringRedisTemplate redisTemplate = EmbeddedRedis.template();
+
+    @Configuration
+    @Import({RedisConfig.class, ClusterNode.class})
+    static class NodeConfig {}
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(redisTemplate);
+    }
+
+    @Test
+    void shutdownDeregistersBeforeTheConnectionFactoryStops() {
+        AnnotationConfigApplicationContext context = startNode();
+        ClusterNode node = context.getBean(ClusterNode.class);
+        assertThat(redisTemplate.opsForHash().hasKey(ClusterNode.NODES_KEY, node.getNodeId()))
+                .isTrue();
+
+        context.close();
+
+        assertThat(redisTemplate.opsForHash().hasKey(ClusterNode.NODES_KEY, node.getNodeId()))
+                .isFalse();
+    }
+
+    @Test
+    void heartbeatAfterStopDoesNotRegisterAgain() {
+        AnnotationConfigApplicationContext context = startNode();
+        ClusterNode node = context.getBean(ClusterNode.class);
+
+        node.stop();
+        node.heartbeat();
+
+        assertThat(redisTemplate.opsForHash().hasKey(ClusterNode.NODES_KEY, node.getNodeId()))
+                .isFalse();
+        context.close();
+    }
+
+    private static AnnotationConfigApplicationContext startNode() {
+        Map<String, Object> properties = new HashMap<>(EmbeddedRedis.properties());
+        properties.put("chat.cluster.node-id", "a");
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", properties));
+        context.register(NodeConfig.class);
+        context.refresh();
+        return context;
+    }
+}
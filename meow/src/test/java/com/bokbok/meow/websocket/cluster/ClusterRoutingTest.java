@@ -0,0 +1,178 @@
+package com.bokbok.meow.websocket.cluster;
+
+import com.bokbok.meow.config.RedisConfig;
+import com.bokbok.meow.support.EmbeddedRedis;
+import com.bokbok.meow.websocket.PayloadFormats;
+import com.bokbok.meow.websocket.SessionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two nodes in one JVM sharing an embedded Redis: alice is connected to
+// node A, the message is sent on node B
+class ClusterRoutingTest {
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @Configuration
+    @Import({RedisConfig.class, ClusterNode.class, SessionRegistry.class,
+            ClusterRoutingInterceptor.class, ClusterRelayListener.class,
+            PayloadFormats.class})
+    static class NodeConfig {
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // What the local broker would be handed
+        @Bean
+        BlockingQueue<Message<?>> delivered() {
+            return new LinkedBlockingQueue<>();
+        }
+
+        @Bean
+        ExecutorSubscribableChannel brokerChannel(ClusterRoutingInterceptor routing,
+                                                  BlockingQueue<Message<?>> delivered) {
+            ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+            channel.addInterceptor(routing);
+            channel.subscribe(delivered::add);
+            return channel;
+        }
+
+        @Bean
+        SimpMessagingTemplate messagingTemplate(ExecutorSubscribableChannel brokerChannel) {
+            return new SimpMessagingTemplate(brokerChannel);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flushAll(EmbeddedRedis.template());
+        nodeA = startNode("a");
+        nodeB = startNode("b");
+        // B learns that A is alive on its next heartbeat
+        nodeB.getBean(ClusterNode.class).heartbeat();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void userMessageSentOnOneNodeReachesTheSessionOnAnother() throws InterruptedException {
+        nodeA.getBean(SessionRegistry.class).connected("session-1", "alice");
+
+        sendOn(nodeB, "/user/alice/queue/messages", "hello");
+
+        Message<?> relayed = deliveredOn(nodeA).poll(5, TimeUnit.SECONDS);
+        assertThat(relayed).isNotNull();
+        assertThat(SimpMessageHeaderAccessor.getDestination(relayed.getHeaders()))
+                .isEqualTo("/user/alice/queue/messages");
+        assertThat(new String((byte[]) relayed.getPayload(), StandardCharsets.UTF_8))
+                .isEqualTo("hello");
+        assertThat(relayed.getHeaders()).containsKey(ClusterRoutingInterceptor.RELAYED_HEADER);
+    }
+
+    @Test
+    void routeIsReadFromRedisOnceAndDroppedWhenTheSessionMoves() throws InterruptedException {
+        // A's own ws:routes publish must reach B before B caches the route,
+        // or its late eviction would cost a second miss
+        CountDownLatch routeChanged = new CountDownLatch(1);
+        nodeB.getBean(RedisMessageListenerContainer.class).addMessageListener(
+                (message, pattern) -> routeChanged.countDown(),
+                new ChannelTopic(SessionRegistry.ROUTES_CHANNEL));
+        nodeA.getBean(SessionRegistry.class).connected("session-1", "alice");
+        assertThat(routeChanged.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 10; i++) {
+            sendOn(nodeB, "/user/alice/queue/messages", "m" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(deliveredOn(nodeA).poll(5, TimeUnit.SECONDS)).isNotNull();
+        }
+        MeterRegistry metricsB = nodeB.getBean(MeterRegistry.class);
+        assertThat(metricsB.counter("chat.cluster.route-cache", "result", "miss").count())
+                .isEqualTo(1);
+        assertThat(metricsB.counter("chat.cluster.route-cache", "result", "hit").count())
+                .isEqualTo(9);
+
+        // Alice leaves node A; B must stop relaying without waiting for the TTL
+        nodeA.getBean(SessionRegistry.class).disconnected("session-1");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!nodeB.getBean(SessionRegistry.class).remoteNodesFor("alice").isEmpty()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        sendOn(nodeB, "/user/alice/queue/messages", "gone");
+        assertThat(deliveredOn(nodeA).poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────
+
+    private static AnnotationConfigApplicationContext startNode(String name) {
+        Map<String, Object> properties = new HashMap<>(EmbeddedRedis.properties());
+        properties.put("chat.cluster.enabled", true);
+        properties.put("chat.cluster.node-id", name);
+        // Only ws:routes evictions may refresh a route during the test
+        properties.put("chat.cluster.route-cache.ttl-ms", 60000);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", properties));
+        context.register(NodeConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void sendOn(AnnotationConfigApplicationContext node,
+                               String destination, String body) {
+        SimpMessageHeaderAccessor headers =
+                SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.TEXT_PLAIN);
+        headers.setLeaveMutable(true);
+        node.getBean(SimpMessagingTemplate.class).send(destination,
+                MessageBuilder.createMessage(body.getBytes(StandardCharsets.UTF_8),
+                        headers.getMessageHeaders()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BlockingQueue<Message<?>> deliveredOn(AnnotationConfigApplicationContext node) {
+        return node.getBean("delivered", BlockingQueue.class);
+    }
+}